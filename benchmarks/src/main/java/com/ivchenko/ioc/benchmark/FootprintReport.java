@@ -0,0 +1,68 @@
+package com.ivchenko.ioc.benchmark;
+
+import com.ivchenko.ioc.injector.Injector;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.ref.Reference;
+import java.util.Arrays;
+
+/**
+ * Measures heap retained by started Injector per component, in default and in compact mode.
+ * Component classes are loaded and linked by a warm-up start before the baseline is measured,
+ * so retained heap consists of the container state, instantiation plans and component instances
+ * (every component instance is an empty object).
+ * Usage: {@code java -cp target/benchmarks.jar com.ivchenko.ioc.benchmark.FootprintReport [size]...}
+ */
+public final class FootprintReport {
+    private static final int[] DEFAULT_SIZES = {1_000, 10_000, 30_000};
+    private static final int FAN_IN = 2;
+
+    private FootprintReport() {
+    }
+
+    public static void main(String[] args) {
+        int[] sizes = args.length == 0 ? DEFAULT_SIZES : Arrays.stream(args).mapToInt(Integer::parseInt).toArray();
+        System.out.printf("%-12s %-8s %14s %12s%n", "components", "mode", "retained KiB", "bytes/bean");
+        for (int size : sizes) {
+            SyntheticGraph graph = SyntheticGraph.generate(size, FAN_IN, 0, true);
+            // Injector discovers components through context class loader
+            ClassLoader previousClassLoader = Thread.currentThread().getContextClassLoader();
+            Thread.currentThread().setContextClassLoader(graph.getClassLoader());
+            try {
+                Injector.startApplication(graph.getMainClass()).close();
+                measure(graph, false);
+                measure(graph, true);
+            } finally {
+                Thread.currentThread().setContextClassLoader(previousClassLoader);
+            }
+        }
+    }
+
+    private static void measure(SyntheticGraph graph, boolean compact) {
+        long baseline = usedHeap();
+        Injector.Builder builder = Injector.create(graph.getMainClass());
+        if (compact) builder.compact();
+        Injector injector = builder.start();
+        long retained = usedHeap() - baseline;
+        System.out.printf(
+                "%-12d %-8s %14d %12d%n",
+                graph.getSize(), compact ? "compact" : "default", retained / 1024, retained / graph.getSize()
+        );
+        Reference.reachabilityFence(injector);
+        injector.close();
+    }
+
+    /**
+     * Heap is collected several times, so weakly and softly reachable objects are released
+     */
+    private static long usedHeap() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            used = Math.min(used, memory.getHeapMemoryUsage().getUsed());
+        }
+        return used;
+    }
+}
@@ -0,0 +1,95 @@
+package com.ivchenko.ioc.benchmark;
+
+import com.ivchenko.ioc.injector.ComponentRegistry;
+import com.ivchenko.ioc.injector.Injector;
+import com.ivchenko.ioc.injector.util.InjectionUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Implementation lookup, bean lookup and prototype creation on started Injector
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LookupBenchmark {
+    private static final Executor SAME_THREAD = Runnable::run;
+
+    @Param({"100", "1000", "10000"})
+    private int size;
+
+    @Param({"4"})
+    private int fanIn;
+
+    private Injector injector;
+    private ComponentRegistry registry;
+    private Class<?> interfaceClass;
+    private String qualifier;
+    private Class<?> singletonClass;
+    private Class<?> prototypeClass;
+    private ClassLoader previousClassLoader;
+
+    @Setup
+    public void setUp() {
+        SyntheticGraph graph = SyntheticGraph.generate(size, fanIn, 4, true);
+        previousClassLoader = Thread.currentThread().getContextClassLoader();
+        Thread.currentThread().setContextClassLoader(graph.getClassLoader());
+
+        injector = Injector.startApplication(graph.getMainClass(), SAME_THREAD);
+        // Every 10th component (index ends with 9) is prototype scoped, lookups use singletons
+        int middle = size / 4;
+        if ((2 * middle + 1) % 10 == 9) middle++;
+        interfaceClass = graph.getInterface(middle);
+        singletonClass = graph.getComponent(2 * middle);
+        qualifier = graph.getComponent(2 * middle + 1).getSimpleName();
+        prototypeClass = graph.getComponent(size / 2 - size / 2 % 10 + 9);
+
+        registry = ComponentRegistry.of(graph.getComponents());
+    }
+
+    @TearDown
+    public void tearDown() {
+        Thread.currentThread().setContextClassLoader(previousClassLoader);
+    }
+
+    @Benchmark
+    public Class<?> getImplementationClass() {
+        return InjectionUtils.getImplementationClass(interfaceClass, registry, null);
+    }
+
+    @Benchmark
+    public Class<?> getImplementationClassQualified() {
+        return InjectionUtils.getImplementationClass(interfaceClass, registry, qualifier);
+    }
+
+    @Benchmark
+    public Object getBean() {
+        return injector.getBean(singletonClass);
+    }
+
+    @Benchmark
+    public Object getBeanQualified() {
+        return injector.getBean(interfaceClass, qualifier);
+    }
+
+    @Benchmark
+    public Object createPrototype() {
+        return injector.getBean(prototypeClass);
+    }
+}
@@ -0,0 +1,64 @@
+package com.ivchenko.ioc.benchmark;
+
+import com.ivchenko.ioc.injector.Injector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end startup of Injector: component discovery, wiring and creation of all singletons
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StartupBenchmark {
+    private static final Executor SAME_THREAD = Runnable::run;
+
+    @Param({"100", "1000", "10000"})
+    private int size;
+
+    @Param({"2", "8"})
+    private int fanIn;
+
+    @Param({"0", "4"})
+    private int qualifierEvery;
+
+    @Param({"true", "false"})
+    private boolean componentIndex;
+
+    private SyntheticGraph graph;
+    private ClassLoader previousClassLoader;
+
+    @Setup
+    public void setUp() {
+        graph = SyntheticGraph.generate(size, fanIn, qualifierEvery, componentIndex);
+        // Injector discovers components through context class loader
+        previousClassLoader = Thread.currentThread().getContextClassLoader();
+        Thread.currentThread().setContextClassLoader(graph.getClassLoader());
+    }
+
+    @TearDown
+    public void tearDown() {
+        Thread.currentThread().setContextClassLoader(previousClassLoader);
+    }
+
+    @Benchmark
+    public Injector startApplication() {
+        return Injector.startApplication(graph.getMainClass(), SAME_THREAD);
+    }
+}
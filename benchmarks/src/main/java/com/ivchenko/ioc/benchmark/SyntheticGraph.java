@@ -0,0 +1,176 @@
+package com.ivchenko.ioc.benchmark;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Generates, compiles and loads synthetic graph of components.
+ * <p>
+ * Every interface {@code S<j>} has two implementations: {@code C<2j>} (default) and {@code C<2j+1>}.
+ * Component {@code C<i>} depends on {@code fanIn} interfaces implemented only by components with smaller index,
+ * so graph has no cycles. Every {@code qualifierEvery}-th dependency is qualified with the second implementation,
+ * every 10th component is prototype scoped
+ */
+public final class SyntheticGraph {
+    public static final String PROTOTYPE_SCOPE = "prototype";
+
+    private final String packageName;
+    private final ClassLoader classLoader;
+    private final int size;
+
+    private SyntheticGraph(String packageName, ClassLoader classLoader, int size) {
+        this.packageName = packageName;
+        this.classLoader = classLoader;
+        this.size = size;
+    }
+
+    /**
+     * @param size number of components
+     * @param fanIn number of dependencies of every component
+     * @param qualifierEvery every n-th dependency is qualified, 0 for no qualifiers
+     * @param componentIndex true if annotation processors (component index, generated wiring) run at compile time
+     * @return compiled graph loaded by separate class loader
+     */
+    public static SyntheticGraph generate(int size, int fanIn, int qualifierEvery, boolean componentIndex) {
+        String packageName = String.format("bench.g%d.f%d.q%d.i%b", size, fanIn, qualifierEvery, componentIndex);
+        try {
+            Path root = Files.createTempDirectory("ioc-graph");
+            Path sources = root.resolve("src");
+            Path classes = root.resolve("classes");
+            Files.createDirectories(classes);
+            List<String> files = writeSources(sources, packageName, size, fanIn, qualifierEvery);
+            compile(files, classes, componentIndex);
+
+            ClassLoader loader = new URLClassLoader(
+                    new URL[]{classes.toUri().toURL()},
+                    SyntheticGraph.class.getClassLoader()
+            );
+            return new SyntheticGraph(packageName, loader, size);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static List<String> writeSources(
+            Path sources,
+            String packageName,
+            int size,
+            int fanIn,
+            int qualifierEvery
+    ) throws IOException {
+        Path dir = sources.resolve(packageName.replace('.', '/'));
+        Files.createDirectories(dir);
+        List<String> files = new ArrayList<>();
+
+        files.add(write(dir, "Main", "package " + packageName + ";\npublic class Main {}\n"));
+        for (int j = 0; j < size / 2; j++) {
+            files.add(write(dir, "S" + j, "package " + packageName + ";\npublic interface S" + j + " {}\n"));
+        }
+        int parameterCounter = 0;
+        for (int i = 0; i < size; i++) {
+            // Only interfaces which both implementations have smaller index
+            int available = Math.max(0, (i - 1) / 2);
+            int dependencies = Math.min(fanIn, available);
+
+            StringBuilder parameters = new StringBuilder();
+            for (int d = 0; d < dependencies; d++) {
+                int target = (i * 31 + d * 17) % available;
+                if (d > 0) parameters.append(", ");
+                parameterCounter++;
+                if (qualifierEvery > 0 && parameterCounter % qualifierEvery == 0)
+                    parameters.append("@Qualifier(\"C").append(2 * target + 1).append("\") ");
+                parameters.append("S").append(target).append(" p").append(d);
+            }
+            String scope = i % 10 == 9 ? "(scope = \"" + PROTOTYPE_SCOPE + "\")" : "";
+            // Last component of odd sized graph has no interface
+            String implemented = i / 2 < size / 2 ? " implements S" + i / 2 : "";
+            files.add(write(dir, "C" + i, "package " + packageName + ";\n"
+                    + "import com.ivchenko.ioc.annotation.*;\n"
+                    + "@Component" + scope + "\n"
+                    + "public class C" + i + implemented + " {\n"
+                    + "    @Autowired\n"
+                    + "    public C" + i + "(" + parameters + ") {}\n"
+                    + "}\n"));
+        }
+        return files;
+    }
+
+    private static String write(Path dir, String className, String source) throws IOException {
+        Path file = dir.resolve(className + ".java");
+        Files.writeString(file, source, StandardCharsets.UTF_8);
+        return file.toString();
+    }
+
+    private static void compile(List<String> files, Path classes, boolean componentIndex) {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        List<String> arguments = new ArrayList<>(List.of(
+                "-d", classes.toString(),
+                "-cp", System.getProperty("java.class.path")
+        ));
+        if (!componentIndex) arguments.add("-proc:none");
+        arguments.addAll(files);
+
+        ByteArrayOutputStream errors = new ByteArrayOutputStream();
+        int result = compiler.run(null, null, errors, arguments.toArray(new String[0]));
+        if (result != 0)
+            throw new IllegalStateException("Unable to compile synthetic graph: " + errors);
+    }
+
+    /**
+     * @return class from the root package of the graph, used to start application
+     */
+    public Class<?> getMainClass() {
+        return load("Main");
+    }
+
+    /**
+     * @return component with specified index
+     */
+    public Class<?> getComponent(int index) {
+        return load("C" + index);
+    }
+
+    /**
+     * @return all components of the graph
+     */
+    public List<Class<?>> getComponents() {
+        List<Class<?>> components = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            components.add(getComponent(i));
+        }
+        return components;
+    }
+
+    /**
+     * @return interface with specified index, implemented by components {@code 2 * index} and {@code 2 * index + 1}
+     */
+    public Class<?> getInterface(int index) {
+        return load("S" + index);
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public ClassLoader getClassLoader() {
+        return classLoader;
+    }
+
+    private Class<?> load(String simpleName) {
+        try {
+            return Class.forName(packageName + "." + simpleName, false, classLoader);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
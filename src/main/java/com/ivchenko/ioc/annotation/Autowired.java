@@ -7,9 +7,12 @@ import java.lang.annotation.Target;
 
 /**
  * Component class constructor should use this annotation for injecting dependencies.
- * Otherwise, first found constructor will be used
+ * Otherwise, constructor with no arguments or the only public constructor will be used,
+ * exception is thrown if there are several public constructors and none of them has no arguments.
+ * Fields and single parameter methods (setters) annotated with this annotation
+ * are injected after construction, before PostConstructor method is invoked
  */
 @Retention(RetentionPolicy.RUNTIME)
-@Target(ElementType.CONSTRUCTOR)
+@Target({ElementType.CONSTRUCTOR, ElementType.FIELD, ElementType.METHOD})
 public @interface Autowired {
 }
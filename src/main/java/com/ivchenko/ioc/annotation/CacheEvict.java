@@ -0,0 +1,27 @@
+package com.ivchenko.ioc.annotation;
+
+import com.ivchenko.ioc.injector.cache.CacheManager;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Method annotated with this annotation removes entries from {@link Cacheable} caches after successful call,
+ * e.g. method which modifies cached data
+ */
+@InterceptorBinding(CacheManager.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface CacheEvict {
+    /**
+     * @return names of caches
+     */
+    String[] value();
+
+    /**
+     * @return true if all entries are removed, otherwise entry with key of arguments of the call is removed
+     */
+    boolean allEntries() default false;
+}
@@ -0,0 +1,36 @@
+package com.ivchenko.ioc.annotation;
+
+import com.ivchenko.ioc.injector.cache.CacheManager;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Result of method annotated with this annotation is cached by arguments of the call,
+ * next calls with equal arguments return cached result without invoking the method.
+ * Single argument is the key itself, several arguments are compared as list, arrays are compared by identity.
+ * Null results are cached, exceptions are not
+ */
+@InterceptorBinding(CacheManager.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Cacheable {
+    /**
+     * @return name of the cache, methods with the same cache name share entries,
+     * by default cache belongs to the method: {@code <class name>.<method name>(<parameter types>)},
+     * e.g. {@code com.app.UserService.find(java.lang.Long)}
+     */
+    String value() default "";
+
+    /**
+     * @return maximal number of entries, least recently used entries are evicted first
+     */
+    long maximumSize() default 10_000;
+
+    /**
+     * @return time to live of entry, e.g. {@code 10m} or {@code PT10M}, entries do not expire by default
+     */
+    String expireAfterWrite() default "";
+}
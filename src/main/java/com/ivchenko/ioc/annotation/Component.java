@@ -11,4 +11,9 @@ import java.lang.annotation.Target;
 @Retention(RetentionPolicy.RUNTIME)
 @Target(ElementType.TYPE)
 public @interface Component {
+    /**
+     * @return name of the scope: {@code "singleton"} (default), {@code "prototype"}, {@code "thread"}
+     * or name of custom {@link com.ivchenko.ioc.injector.Scope}
+     */
+    String scope() default "singleton";
 }
@@ -0,0 +1,19 @@
+package com.ivchenko.ioc.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Component annotated with this annotation is registered only if all specified classes are present in class path.
+ * Classes are searched as resources, they are not loaded
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface ConditionalOnClass {
+    /**
+     * @return binary names of required classes
+     */
+    String[] value();
+}
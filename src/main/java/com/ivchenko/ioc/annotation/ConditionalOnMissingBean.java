@@ -0,0 +1,20 @@
+package com.ivchenko.ioc.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Component annotated with this annotation is registered only if there is no other component of specified types,
+ * e.g. default implementation which is replaced by more specific one.
+ * Only components without this annotation are considered
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface ConditionalOnMissingBean {
+    /**
+     * @return types which should not be implemented by other components
+     */
+    Class<?>[] value();
+}
@@ -0,0 +1,29 @@
+package com.ivchenko.ioc.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Component annotated with this annotation is registered only if configuration property has specified value.
+ * Condition is checked before any component class is loaded if component index or generated wiring is present
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface ConditionalOnProperty {
+    /**
+     * @return property key
+     */
+    String name();
+
+    /**
+     * @return expected value (case-insensitive), if empty, any value except {@code false} matches
+     */
+    String havingValue() default "";
+
+    /**
+     * @return true if component should be registered when property is not set
+     */
+    boolean matchIfMissing() default false;
+}
@@ -0,0 +1,43 @@
+package com.ivchenko.ioc.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Public method annotated with this annotation receives events published with
+ * {@link com.ivchenko.ioc.injector.EventPublisher}, which are instances of its parameter type.
+ * Listeners are resolved once, after all components are created
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface EventListener {
+    Delivery delivery() default Delivery.SYNC;
+
+    /**
+     * @return maximal number of events in one batch of {@link Delivery#BATCH} listener
+     */
+    int maxBatchSize() default 100;
+
+    /**
+     * @return maximal time event waits in batch of {@link Delivery#BATCH} listener, e.g. {@code 100ms}
+     */
+    String maxBatchDelay() default "100ms";
+
+    enum Delivery {
+        /**
+         * Listener is invoked in publishing thread, its exception is thrown to publisher
+         */
+        SYNC,
+        /**
+         * Listener is invoked in separate task, on virtual thread if JVM supports them
+         */
+        ASYNC,
+        /**
+         * Listener receives {@code List} of events asynchronously, when batch is full or its delay is passed,
+         * batches of one listener are delivered one at a time in order of publication
+         */
+        BATCH
+    }
+}
@@ -0,0 +1,23 @@
+package com.ivchenko.ioc.annotation;
+
+import com.ivchenko.ioc.injector.aop.MethodInterceptor;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Meta-annotation of interceptor binding annotations, e.g. {@code @Timed}.
+ * Public methods annotated with binding annotation, or all public methods of component annotated with it,
+ * are intercepted by the interceptor component. Intercepted component is created as subclass
+ * generated by {@link com.ivchenko.ioc.processor.InterceptionProcessor}, other methods are not overridden
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.ANNOTATION_TYPE)
+public @interface InterceptorBinding {
+    /**
+     * @return interceptor component class
+     */
+    Class<? extends MethodInterceptor> value();
+}
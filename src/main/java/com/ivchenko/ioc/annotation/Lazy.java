@@ -0,0 +1,15 @@
+package com.ivchenko.ioc.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Component annotated with this annotation is created on first request instead of application startup.
+ * If lazy component is injected as an interface, proxy is injected, and component is created on first method call
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface Lazy {
+}
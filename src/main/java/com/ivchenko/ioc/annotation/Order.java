@@ -0,0 +1,20 @@
+package com.ivchenko.ioc.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Order of component among implementations of the same type.
+ * Components with lower value come first in injected lists, arrays and maps and are injected by default,
+ * components without this annotation come last. Components with equal order are ordered by class name
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface Order {
+    /**
+     * @return order value, lower values have higher priority
+     */
+    int value();
+}
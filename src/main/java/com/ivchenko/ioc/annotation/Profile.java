@@ -0,0 +1,21 @@
+package com.ivchenko.ioc.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Component annotated with this annotation is registered only if one of specified profiles is active.
+ * Profile prefixed with {@code !} matches if profile is not active.
+ * Active profiles are set with {@link com.ivchenko.ioc.injector.Injector.Builder#profiles(String...)}
+ * or with {@code ioc.profiles.active} property (comma separated)
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface Profile {
+    /**
+     * @return profile names, e.g. {@code {"dev", "test"}} or {@code "!prod"}
+     */
+    String[] value();
+}
@@ -6,11 +6,12 @@ import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
 /**
- * Component constructor parameters should use this annotation to determine which implementation should be used
- * Otherwise first found implementation will be used
+ * Component constructor parameters, setter parameters and autowired fields
+ * should use this annotation to determine which implementation should be used
+ * Otherwise implementation with the lowest {@link Order}, then with first (alphabetically) class name will be used
  */
 @Retention(RetentionPolicy.RUNTIME)
-@Target(ElementType.PARAMETER)
+@Target({ElementType.PARAMETER, ElementType.FIELD})
 public @interface Qualifier {
     /**
      * @return simple name of implementation class ({@link Class#getSimpleName()})
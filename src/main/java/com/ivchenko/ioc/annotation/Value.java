@@ -0,0 +1,21 @@
+package com.ivchenko.ioc.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Constructor parameters, setter parameters and autowired fields should use this annotation
+ * to receive configuration property instead of component.
+ * Property is converted to parameter type once at application startup,
+ * missing property or invalid value fails application startup
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.PARAMETER, ElementType.FIELD})
+public @interface Value {
+    /**
+     * @return property key, optionally followed by default value: {@code "pool.size:8"}
+     */
+    String value();
+}
@@ -0,0 +1,16 @@
+package com.ivchenko.ioc.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Methods annotated with this annotation will be executed in background after all components are created.
+ * Method returns {@link java.util.concurrent.CompletionStage} completed when warm-up is finished, or void.
+ * Application is ready when warm-up methods of all created components are finished
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface WarmUp {
+}
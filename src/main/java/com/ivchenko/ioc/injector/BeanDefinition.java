@@ -0,0 +1,453 @@
+package com.ivchenko.ioc.injector;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.ivchenko.ioc.annotation.Component;
+import com.ivchenko.ioc.annotation.Lazy;
+import com.ivchenko.ioc.injector.aop.Intercepted;
+import com.ivchenko.ioc.injector.aop.MethodInterceptor;
+import com.ivchenko.ioc.injector.util.ReflectionUtils;
+import lombok.SneakyThrows;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static com.ivchenko.ioc.injector.util.ReflectionUtils.getInjectionConstructor;
+
+/**
+ * Instantiation plan of a component class, computed once per class:
+ * resolved constructor, its dependencies, autowired fields and setters, PostConstructor and WarmUp methods.
+ * PreDestroy method is resolved on first destruction, so components which are never destroyed are not inspected.
+ * Components with intercepted methods are instantiated as generated subclasses ({@link Intercepted}).
+ * Instances are created through method handles instead of reflective calls,
+ * or through plain Java calls if plan is generated at compile time ({@link GeneratedComponent})
+ */
+public final class BeanDefinition {
+    private static final MethodType INSTANTIATOR_TYPE = MethodType.methodType(Object.class, Object[].class);
+    private static final MethodType LIFECYCLE_METHOD_TYPE = MethodType.methodType(void.class, Object.class);
+    private static final MethodType WARM_UP_TYPE = MethodType.methodType(CompletionStage.class, Object.class);
+    private static final InjectionPoint[] NO_INJECTION_POINTS = new InjectionPoint[0];
+    private static final Dependency[] NO_DEPENDENCIES = new Dependency[0];
+    private static final Consumer<Object> NO_PRE_DESTROY = instance -> {};
+
+    private final Class<?> type;
+    // Null for generated plan
+    private final Constructor<?> constructor;
+    // Null for generated plan or if there is no PostConstructor method
+    private final Method postConstructorMethod;
+    // Null if there is no WarmUp method, generated plans never have WarmUp method
+    private final Method warmUpMethod;
+    private final Dependency[] dependencies;
+    // Autowired fields and setters, injected after construction
+    private final InjectionPoint[] injectionPoints;
+    // Distinct interceptor components, empty if component is not intercepted
+    private final Dependency[] interceptorDependencies;
+    // Key: Intercepted method
+    // Value: Indexes of its interceptors in interceptorDependencies, in order of invocation
+    private final ImmutableMap<Method, int[]> interceptorChains;
+    // Empty for generated plan or if there are no EventListener methods
+    private final List<Method> eventListenerMethods;
+    // Spreads arguments to the constructor
+    private final Function<Object[], Object> instantiator;
+    // Null if there is no PostConstructor method
+    private final Consumer<Object> postConstructor;
+    // Null if there is no WarmUp method, returns null for void WarmUp method
+    private final Function<Object, CompletionStage<?>> warmUp;
+    private final String scope;
+    private final boolean lazy;
+    // PreDestroy method or close() of AutoCloseable, null until resolved
+    private volatile Consumer<Object> preDestroy;
+
+    private BeanDefinition(
+            Class<?> type,
+            Constructor<?> constructor,
+            Method postConstructorMethod,
+            Method warmUpMethod,
+            Dependency[] dependencies,
+            InjectionPoint[] injectionPoints,
+            Dependency[] interceptorDependencies,
+            ImmutableMap<Method, int[]> interceptorChains,
+            List<Method> eventListenerMethods,
+            Function<Object[], Object> instantiator,
+            Consumer<Object> postConstructor,
+            Function<Object, CompletionStage<?>> warmUp,
+            String scope,
+            boolean lazy
+    ) {
+        this.type = type;
+        this.constructor = constructor;
+        this.postConstructorMethod = postConstructorMethod;
+        this.warmUpMethod = warmUpMethod;
+        this.dependencies = dependencies;
+        this.injectionPoints = injectionPoints;
+        this.interceptorDependencies = interceptorDependencies;
+        this.interceptorChains = interceptorChains;
+        this.eventListenerMethods = eventListenerMethods;
+        this.instantiator = instantiator;
+        this.postConstructor = postConstructor;
+        this.warmUp = warmUp;
+        this.scope = scope;
+        this.lazy = lazy;
+    }
+
+    /**
+     * Resolves instantiation plan for specified component class
+     * @param clazz component class
+     * @return instantiation plan
+     */
+    public static BeanDefinition of(Class<?> clazz) {
+        Constructor<?> constructor = getInjectionConstructor(clazz);
+        Parameter[] parameters = constructor.getParameters();
+        Dependency[] dependencies = new Dependency[parameters.length];
+        for (int i = 0; i < parameters.length; i++) {
+            dependencies[i] = Dependency.of(parameters[i]);
+        }
+        InjectionPoint[] injectionPoints = ReflectionUtils.getAutowiredMembers(clazz).stream()
+                .map(InjectionPoint::of)
+                .toArray(InjectionPoint[]::new);
+        return of(
+                clazz,
+                constructor,
+                dependencies,
+                injectionPoints,
+                ReflectionUtils.getPostConstructorMethod(clazz).orElse(null),
+                ReflectionUtils.getWarmUpMethod(clazz).orElse(null),
+                ReflectionUtils.getInterceptorBindings(clazz),
+                ReflectionUtils.getEventListenerMethods(clazz),
+                clazz.getAnnotation(Component.class).scope(),
+                clazz.isAnnotationPresent(Lazy.class)
+        );
+    }
+
+    /**
+     * Creates instantiation plan from already resolved constructor, injection points, PostConstructor and WarmUp methods
+     * interceptors and EventListener methods, annotations are not read
+     * @param postConstructorMethod PostConstructor method or null
+     * @param warmUpMethod WarmUp method or null
+     * @param interceptors interceptor classes by intercepted methods ({@link ReflectionUtils#getInterceptorBindings(Class)})
+     * @param eventListenerMethods EventListener methods ({@link ReflectionUtils#getEventListenerMethods(Class)})
+     * @return instantiation plan
+     */
+    @SneakyThrows
+    static BeanDefinition of(
+            Class<?> clazz,
+            Constructor<?> constructor,
+            Dependency[] dependencies,
+            InjectionPoint[] injectionPoints,
+            Method postConstructorMethod,
+            Method warmUpMethod,
+            Map<Method, List<Class<? extends MethodInterceptor>>> interceptors,
+            List<Method> eventListenerMethods,
+            String scope,
+            boolean lazy
+    ) {
+        // Key: Interceptor class
+        // Value: Index in interceptor dependencies
+        Map<Class<?>, Integer> interceptorIds = Maps.newLinkedHashMap();
+        ImmutableMap.Builder<Method, int[]> interceptorChains = ImmutableMap.builder();
+        for (Map.Entry<Method, List<Class<? extends MethodInterceptor>>> e : interceptors.entrySet()) {
+            int[] chain = new int[e.getValue().size()];
+            for (int i = 0; i < chain.length; i++) {
+                Class<?> interceptor = e.getValue().get(i);
+                Integer id = interceptorIds.get(interceptor);
+                if (id == null)
+                    interceptorIds.put(interceptor, id = interceptorIds.size());
+                chain[i] = id;
+            }
+            interceptorChains.put(e.getKey(), chain);
+        }
+        // Generated subclass has the same constructors
+        Constructor<?> instantiated = interceptors.isEmpty()
+                ? constructor
+                : getInterceptedClass(clazz).getConstructor(constructor.getParameterTypes());
+
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        MethodHandle instantiator = lookup.unreflectConstructor(instantiated)
+                .asSpreader(Object[].class, dependencies.length)
+                .asType(INSTANTIATOR_TYPE);
+        MethodHandle postConstructor = postConstructorMethod != null
+                ? lookup.unreflect(postConstructorMethod).asType(LIFECYCLE_METHOD_TYPE)
+                : null;
+        // Void WarmUp method returns null
+        MethodHandle warmUp = warmUpMethod != null
+                ? lookup.unreflect(warmUpMethod).asType(WARM_UP_TYPE)
+                : null;
+
+        return new BeanDefinition(
+                clazz,
+                constructor,
+                postConstructorMethod,
+                warmUpMethod,
+                dependencies,
+                injectionPoints,
+                interceptorIds.keySet().stream().map(c -> new Dependency(c, null)).toArray(Dependency[]::new),
+                interceptorChains.build(),
+                List.copyOf(eventListenerMethods),
+                arguments -> invokeInstantiator(instantiator, arguments),
+                postConstructor == null ? null : instance -> invokeLifecycleMethod(postConstructor, instance),
+                warmUp == null ? null : instance -> invokeWarmUp(warmUp, instance),
+                scope,
+                lazy
+        );
+    }
+
+    /**
+     * Uses plan generated at compile time,
+     * if generated plan has no constructor, it is resolved reflectively
+     * @param generated generated instantiation plan
+     * @return instantiation plan
+     */
+    public static BeanDefinition of(GeneratedComponent generated) {
+        if (generated.getConstructor() == null) return of(generated.getType());
+        return new BeanDefinition(
+                generated.getType(),
+                null,
+                null,
+                null,
+                generated.getDependencies(),
+                NO_INJECTION_POINTS,
+                NO_DEPENDENCIES,
+                ImmutableMap.of(),
+                List.of(),
+                generated.getConstructor(),
+                generated.getPostConstructor(),
+                null,
+                generated.getScope(),
+                generated.isLazy()
+        );
+    }
+
+    private static Class<?> getInterceptedClass(Class<?> clazz) {
+        String name = clazz.getName() + Intercepted.CLASS_NAME_SUFFIX;
+        try {
+            return Class.forName(name, false, clazz.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException(
+                    "Intercepted subclass is not generated, InterceptionProcessor should be enabled: " + name, e
+            );
+        }
+    }
+
+    @SneakyThrows
+    private static Object invokeInstantiator(MethodHandle instantiator, Object[] arguments) {
+        return (Object) instantiator.invokeExact(arguments);
+    }
+
+    @SneakyThrows
+    private static void invokeLifecycleMethod(MethodHandle method, Object instance) {
+        method.invokeExact(instance);
+    }
+
+    @SneakyThrows
+    private static CompletionStage<?> invokeWarmUp(MethodHandle warmUp, Object instance) {
+        return (CompletionStage<?>) warmUp.invokeExact(instance);
+    }
+
+    /**
+     * Creates new instance with specified dependencies instances
+     * @param arguments instances of dependencies in order of {@link #getDependencies()}
+     * @return new instance, PostConstructor is not invoked
+     */
+    public Object newInstance(Object[] arguments) {
+        return instantiator.apply(arguments);
+    }
+
+    /**
+     * Binds interceptors to intercepted methods, should be called before PostConstructor
+     * @param instance instance created by this definition
+     * @param interceptors instances of interceptors in order of {@link #getInterceptorDependencies()}
+     */
+    public void bindInterceptors(Object instance, MethodInterceptor[] interceptors) {
+        ((Intercepted) instance).bindInterceptors(method -> {
+            int[] chain = interceptorChains.get(method);
+            if (chain == null) return null;
+            MethodInterceptor[] result = new MethodInterceptor[chain.length];
+            for (int i = 0; i < chain.length; i++) {
+                result[i] = interceptors[chain[i]];
+            }
+            return result;
+        });
+    }
+
+    /**
+     * @return true if instances are generated subclasses with intercepted methods
+     */
+    public boolean isIntercepted() {
+        return interceptorDependencies.length > 0;
+    }
+
+    /**
+     * Invokes PostConstructor method if present
+     * @param instance instance created by this definition
+     */
+    public void invokePostConstructor(Object instance) {
+        if (postConstructor != null)
+            postConstructor.accept(instance);
+    }
+
+    /**
+     * Invokes WarmUp method if present
+     * @param instance instance created by this definition
+     * @return stage of asynchronous warm-up or null if warm-up is finished or there is no WarmUp method
+     */
+    public CompletionStage<?> invokeWarmUp(Object instance) {
+        return warmUp != null ? warmUp.apply(instance) : null;
+    }
+
+    public boolean hasWarmUp() {
+        return warmUp != null;
+    }
+
+    /**
+     * Invokes PreDestroy method if present, otherwise closes {@link AutoCloseable} component
+     * @param instance instance created by this definition
+     */
+    public void invokePreDestroy(Object instance) {
+        getPreDestroy().accept(instance);
+    }
+
+    /**
+     * @return true if component has PreDestroy method or is {@link AutoCloseable}
+     */
+    public boolean hasPreDestroy() {
+        return getPreDestroy() != NO_PRE_DESTROY;
+    }
+
+    private Consumer<Object> getPreDestroy() {
+        Consumer<Object> result = preDestroy;
+        if (result == null)
+            preDestroy = result = resolvePreDestroy(type);
+        return result;
+    }
+
+    @SneakyThrows
+    private static Consumer<Object> resolvePreDestroy(Class<?> type) {
+        Method method = ReflectionUtils.getPreDestroyMethod(type).orElse(null);
+        if (method != null) {
+            MethodHandle handle = MethodHandles.privateLookupIn(type, MethodHandles.lookup())
+                    .unreflect(method)
+                    .asType(LIFECYCLE_METHOD_TYPE);
+            return instance -> invokeLifecycleMethod(handle, instance);
+        }
+        if (AutoCloseable.class.isAssignableFrom(type))
+            return BeanDefinition::close;
+        return NO_PRE_DESTROY;
+    }
+
+    @SneakyThrows
+    private static void close(Object instance) {
+        ((AutoCloseable) instance).close();
+    }
+
+    public Class<?> getType() {
+        return type;
+    }
+
+    /**
+     * @return resolved constructor or null if plan is generated at compile time
+     */
+    public Constructor<?> getConstructor() {
+        return constructor;
+    }
+
+    /**
+     * @return resolved PostConstructor method or null if there is no such method or plan is generated at compile time
+     */
+    public Method getPostConstructorMethod() {
+        return postConstructorMethod;
+    }
+
+    /**
+     * @return resolved WarmUp method or null if there is no such method
+     */
+    public Method getWarmUpMethod() {
+        return warmUpMethod;
+    }
+
+    /**
+     * @return dependencies in order of constructor parameters, array must not be modified
+     */
+    public Dependency[] getDependencies() {
+        return dependencies;
+    }
+
+    /**
+     * @return autowired fields and setters, superclass members first, array must not be modified
+     */
+    public InjectionPoint[] getInjectionPoints() {
+        return injectionPoints;
+    }
+
+    /**
+     * @return interceptor components, empty if component is not intercepted, array must not be modified
+     */
+    public Dependency[] getInterceptorDependencies() {
+        return interceptorDependencies;
+    }
+
+    /**
+     * @param interceptor interceptor component class
+     * @return methods intercepted by the interceptor, empty if there are no such methods
+     */
+    public List<Method> getInterceptedMethods(Class<?> interceptor) {
+        int id = -1;
+        for (int i = 0; i < interceptorDependencies.length; i++) {
+            if (interceptorDependencies[i].getType() == interceptor) id = i;
+        }
+        if (id < 0) return List.of();
+        List<Method> methods = Lists.newArrayList();
+        for (Map.Entry<Method, int[]> e : interceptorChains.entrySet()) {
+            for (int i : e.getValue()) {
+                if (i == id) methods.add(e.getKey());
+            }
+        }
+        return methods;
+    }
+
+    /**
+     * @return EventListener methods, empty if there are no such methods or plan is generated at compile time
+     */
+    public List<Method> getEventListenerMethods() {
+        return eventListenerMethods;
+    }
+
+    public boolean hasPostConstructor() {
+        return postConstructor != null;
+    }
+
+    /**
+     * @return name of the scope ({@link Scope})
+     */
+    public String getScope() {
+        return scope;
+    }
+
+    /**
+     * @return true if component is created on first request instead of application startup
+     */
+    public boolean isLazy() {
+        return lazy;
+    }
+
+    /**
+     * @return true if component is singleton created at application startup
+     */
+    public boolean isEager() {
+        return !lazy && Scope.SINGLETON.equals(scope);
+    }
+
+    @Override
+    public String toString() {
+        return "BeanDefinition(" + type.getName() + ")";
+    }
+}
@@ -0,0 +1,148 @@
+package com.ivchenko.ioc.injector;
+
+import com.ivchenko.ioc.injector.aop.MethodInterceptor;
+import com.ivchenko.ioc.injector.report.BeanCreationEvents;
+import com.ivchenko.ioc.injector.report.StartupRecorder;
+
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Creates instances of one component.
+ * Dependencies are resolved to holders once, so every creation
+ * only reads holders and invokes constructor and setter handles of {@link BeanDefinition}
+ */
+final class BeanFactory implements Supplier<Object> {
+    private final BeanDefinition definition;
+    // Holders of dependencies in order of constructor parameters
+    private BeanHolder[] dependencies;
+    // Proxies, providers or property values which are injected as is, otherwise null
+    private Object[] proxies;
+    // Holders of dependencies in order of injection points
+    private BeanHolder[] memberDependencies;
+    // Proxies, providers or property values of members which are injected as is, otherwise null
+    private Object[] memberProxies;
+    // Holders of interceptors in order of interceptor dependencies, empty if component is not intercepted
+    private BeanHolder[] interceptors;
+    // Not null only during application startup
+    private StartupRecorder recorder;
+
+    BeanFactory(BeanDefinition definition) {
+        this.definition = definition;
+    }
+
+    /**
+     * Resolves dependencies to holders, should be called once before first creation.
+     * Dependencies resolved on every request are injected as proxies if requested type is interface,
+     * otherwise instance is requested from holder at injection time.
+     * Provider dependencies are bound to holders here, configuration properties are converted here,
+     * so invalid property fails startup instead of component creation
+     */
+    void resolve(Function<Dependency, BeanHolder> resolver) {
+        Dependency[] definitionDependencies = definition.getDependencies();
+        dependencies = new BeanHolder[definitionDependencies.length];
+        proxies = new Object[definitionDependencies.length];
+        resolve(definitionDependencies, resolver, dependencies, proxies);
+
+        InjectionPoint[] injectionPoints = definition.getInjectionPoints();
+        Dependency[] injectionDependencies = new Dependency[injectionPoints.length];
+        for (int i = 0; i < injectionPoints.length; i++) {
+            injectionDependencies[i] = injectionPoints[i].getDependency();
+        }
+        memberDependencies = new BeanHolder[injectionPoints.length];
+        memberProxies = new Object[injectionPoints.length];
+        resolve(injectionDependencies, resolver, memberDependencies, memberProxies);
+
+        Dependency[] interceptorDependencies = definition.getInterceptorDependencies();
+        interceptors = new BeanHolder[interceptorDependencies.length];
+        for (int i = 0; i < interceptorDependencies.length; i++) {
+            interceptors[i] = resolver.apply(interceptorDependencies[i]);
+        }
+    }
+
+    private static void resolve(
+            Dependency[] dependencies,
+            Function<Dependency, BeanHolder> resolver,
+            BeanHolder[] holders,
+            Object[] proxies
+    ) {
+        for (int i = 0; i < dependencies.length; i++) {
+            Class<?> type = dependencies[i].getType();
+            holders[i] = resolver.apply(dependencies[i]);
+            Dependency.Kind kind = dependencies[i].getKind();
+            if (kind == Dependency.Kind.VALUE)
+                proxies[i] = holders[i].get();
+            else if (kind == Dependency.Kind.PROVIDER)
+                proxies[i] = BeanHolder.provider(holders[i]);
+            else if (kind == Dependency.Kind.INSTANCE && holders[i].requiresProxy() && type.isInterface())
+                proxies[i] = BeanHolder.proxy(type, holders[i]);
+        }
+    }
+
+    /**
+     * Creates new instance, binds interceptors, injects dependencies, autowired fields and setters and invokes PostConstructor
+     * @return new instance of the component
+     */
+    @Override
+    public Object get() {
+        Object[] arguments = new Object[dependencies.length];
+        for (int i = 0; i < arguments.length; i++) {
+            arguments[i] = proxies[i] != null ? proxies[i] : dependencies[i].get();
+        }
+        if (recorder == null && !BeanCreationEvents.isEnabled()) {
+            Object instance = newInstance(arguments);
+            injectMembers(instance);
+            definition.invokePostConstructor(instance);
+            return instance;
+        }
+        return createInstrumented(arguments);
+    }
+
+    private Object newInstance(Object[] arguments) {
+        Object instance = definition.newInstance(arguments);
+        if (interceptors.length > 0) {
+            MethodInterceptor[] instances = new MethodInterceptor[interceptors.length];
+            for (int i = 0; i < instances.length; i++) {
+                instances[i] = (MethodInterceptor) interceptors[i].get();
+            }
+            definition.bindInterceptors(instance, instances);
+        }
+        return instance;
+    }
+
+    private void injectMembers(Object instance) {
+        InjectionPoint[] injectionPoints = definition.getInjectionPoints();
+        for (int i = 0; i < injectionPoints.length; i++) {
+            injectionPoints[i].inject(instance, memberProxies[i] != null ? memberProxies[i] : memberDependencies[i].get());
+        }
+    }
+
+    private Object createInstrumented(Object[] arguments) {
+        long allocatedBefore = BeanCreationEvents.currentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        Object instance = newInstance(arguments);
+        injectMembers(instance);
+        long constructed = System.nanoTime();
+        definition.invokePostConstructor(instance);
+        long end = System.nanoTime();
+        long allocated = allocatedBefore < 0 ? -1 : BeanCreationEvents.currentThreadAllocatedBytes() - allocatedBefore;
+
+        StartupRecorder recorder = this.recorder;
+        if (recorder != null)
+            recorder.beanCreated(definition.getType(), constructed - start, end - constructed, allocated);
+        if (BeanCreationEvents.isEnabled())
+            BeanCreationEvents.commit(definition.getType(), constructed - start, end - constructed, allocated);
+        return instance;
+    }
+
+    /**
+     * @param recorder records creation timings during startup, null after startup
+     */
+    void setRecorder(StartupRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    BeanDefinition getDefinition() {
+        return definition;
+    }
+}
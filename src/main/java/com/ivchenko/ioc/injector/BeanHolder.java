@@ -0,0 +1,226 @@
+package com.ivchenko.ioc.injector;
+
+import com.google.common.base.Preconditions;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.function.Supplier;
+
+/**
+ * Holds instance of one component and returns it on request
+ */
+abstract class BeanHolder {
+    /**
+     * @return instance of the component
+     */
+    abstract Object get();
+
+    /**
+     * @return true if instance is resolved on request,
+     * so it should be injected through proxy to be resolved on every method call
+     */
+    abstract boolean requiresProxy();
+
+    /**
+     * @return shared instance if it is already created, null if instance is not created yet
+     * or is not shared by this holder (prototype, thread and custom scopes)
+     */
+    Object getCreated() {
+        return null;
+    }
+
+    /**
+     * Holds instance created during application startup
+     */
+    static final class Singleton extends BeanHolder {
+        private final Class<?> componentClass;
+        private Object instance;
+
+        Singleton(Class<?> componentClass) {
+            this.componentClass = componentClass;
+        }
+
+        void set(Object instance) {
+            this.instance = instance;
+        }
+
+        @Override
+        Object get() {
+            Object result = instance;
+            Preconditions.checkState(result != null, "Dependency is not created: %s", componentClass);
+            return result;
+        }
+
+        @Override
+        Object getCreated() {
+            return instance;
+        }
+
+        @Override
+        boolean requiresProxy() {
+            return false;
+        }
+    }
+
+    /**
+     * Creates instance on first request, exactly once
+     */
+    static final class LazySingleton extends BeanHolder {
+        private final Supplier<Object> factory;
+        private volatile Object instance;
+
+        LazySingleton(Supplier<Object> factory) {
+            this.factory = factory;
+        }
+
+        @Override
+        Object get() {
+            Object result = instance;
+            if (result == null) {
+                synchronized (this) {
+                    result = instance;
+                    if (result == null)
+                        instance = result = factory.get();
+                }
+            }
+            return result;
+        }
+
+        @Override
+        Object getCreated() {
+            return instance;
+        }
+
+        @Override
+        boolean requiresProxy() {
+            return true;
+        }
+    }
+
+    /**
+     * Creates new instance on every request
+     */
+    static final class Prototype extends BeanHolder {
+        private final Supplier<Object> factory;
+
+        Prototype(Supplier<Object> factory) {
+            this.factory = factory;
+        }
+
+        @Override
+        Object get() {
+            return factory.get();
+        }
+
+        @Override
+        boolean requiresProxy() {
+            return false;
+        }
+    }
+
+    /**
+     * Creates instance once per thread
+     */
+    static final class PerThread extends BeanHolder {
+        private final ThreadLocal<Object> instance;
+
+        PerThread(Supplier<Object> factory) {
+            this.instance = ThreadLocal.withInitial(factory);
+        }
+
+        @Override
+        Object get() {
+            return instance.get();
+        }
+
+        @Override
+        boolean requiresProxy() {
+            return true;
+        }
+    }
+
+    /**
+     * Requests instance from custom {@link Scope}
+     */
+    static final class Scoped extends BeanHolder {
+        private final Scope scope;
+        private final Class<?> componentClass;
+        private final Supplier<Object> factory;
+
+        Scoped(Scope scope, Class<?> componentClass, Supplier<Object> factory) {
+            this.scope = scope;
+            this.componentClass = componentClass;
+            this.factory = factory;
+        }
+
+        @Override
+        Object get() {
+            return scope.get(componentClass, factory);
+        }
+
+        @Override
+        boolean requiresProxy() {
+            return true;
+        }
+    }
+
+    /**
+     * Holds value resolved at startup, e.g. converted configuration property
+     */
+    static final class Constant extends BeanHolder {
+        private final Object value;
+
+        Constant(Object value) {
+            this.value = value;
+        }
+
+        @Override
+        Object get() {
+            return value;
+        }
+
+        @Override
+        boolean requiresProxy() {
+            return false;
+        }
+    }
+
+    /**
+     * Creates provider bound to holder, every {@link Provider#get()} is a single call of {@link #get()}
+     * @param holder holder of the component
+     * @return provider of the component
+     */
+    static Provider<Object> provider(BeanHolder holder) {
+        return new HolderProvider(holder);
+    }
+
+    private static final class HolderProvider implements Provider<Object> {
+        private final BeanHolder holder;
+
+        private HolderProvider(BeanHolder holder) {
+            this.holder = holder;
+        }
+
+        @Override
+        public Object get() {
+            return holder.get();
+        }
+    }
+
+    /**
+     * Creates interface proxy, which requests instance from holder on every method call
+     * @param type interface implemented by component
+     * @param holder holder of the component
+     * @return proxy implementing specified interface
+     */
+    static Object proxy(Class<?> type, BeanHolder holder) {
+        Preconditions.checkState(type.isInterface(), "Proxy can be created only for interface: %s", type);
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            try {
+                return method.invoke(holder.get(), args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        });
+    }
+}
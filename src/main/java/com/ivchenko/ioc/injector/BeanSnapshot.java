@@ -0,0 +1,36 @@
+package com.ivchenko.ioc.injector;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Frozen state of started Injector: registry and holders of all components.
+ * Never modified after creation, so it can be read by any thread without locking.
+ * Holders are indexed by component ids of the registry, so lookup is one map access
+ */
+final class BeanSnapshot {
+    private final ComponentRegistry registry;
+    // Index is id of the component
+    private final BeanHolder[] holders;
+
+    BeanSnapshot(ComponentRegistry registry, Map<Class<?>, BeanHolder> holders) {
+        this.registry = registry;
+        List<Class<?>> componentClasses = registry.getComponentClasses();
+        this.holders = new BeanHolder[componentClasses.size()];
+        for (int id = 0; id < this.holders.length; id++) {
+            this.holders[id] = holders.get(componentClasses.get(id));
+        }
+    }
+
+    /**
+     * @return holder of the component registered in this snapshot or null if there is no such component
+     */
+    BeanHolder findHolder(Class<?> type, String qualifier) {
+        int id = registry.findImplementationId(type, qualifier);
+        return id < 0 ? null : holders[id];
+    }
+
+    ComponentRegistry getRegistry() {
+        return registry;
+    }
+}
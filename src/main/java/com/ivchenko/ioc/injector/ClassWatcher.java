@@ -0,0 +1,155 @@
+package com.ivchenko.ioc.injector;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Watches class output directories and reports names of created and modified classes.
+ * Compiler writes classes one by one, so changes are collected until directories are quiet
+ * and are reported together from watcher thread
+ */
+final class ClassWatcher implements AutoCloseable {
+    private static final String CLASS_FILE_SUFFIX = ".class";
+    private static final long QUIET_PERIOD_MILLIS = 200;
+
+    private final WatchService watchService;
+    // Key: Key of watched directory, directories are watched without subdirectories
+    // Value: Watched directory and class output directory containing it
+    private final Map<WatchKey, WatchedDirectory> directories = Maps.newConcurrentMap();
+    // Receives binary names of changed classes
+    private final Consumer<Set<String>> listener;
+    private final Thread thread;
+
+    ClassWatcher(List<Path> roots, Consumer<Set<String>> listener) throws IOException {
+        this.watchService = FileSystems.getDefault().newWatchService();
+        this.listener = listener;
+        for (Path root : ImmutableList.copyOf(roots)) {
+            register(root, root, null);
+        }
+        this.thread = new Thread(this::run, "ioc-hot-reload");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Watches directory with subdirectories
+     * @param changed receives classes of directory created while it was watched, null for initial registration
+     */
+    private void register(Path root, Path directory, Set<String> changed) throws IOException {
+        Files.walkFileTree(directory, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attributes) throws IOException {
+                WatchKey key = dir.register(
+                        watchService,
+                        StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY
+                );
+                directories.put(key, new WatchedDirectory(root, dir));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                // Classes may be written before their directory is watched
+                if (changed != null && isClassFile(file))
+                    addClassName(root, file, changed);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                Set<String> changed = Sets.newLinkedHashSet();
+                do {
+                    collect(key, changed);
+                    key = watchService.poll(QUIET_PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+                } while (key != null);
+                if (!changed.isEmpty())
+                    listener.accept(changed);
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Watcher is closed
+        }
+    }
+
+    private void collect(WatchKey key, Set<String> changed) {
+        WatchedDirectory watched = directories.get(key);
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (watched == null || event.kind() == StandardWatchEventKinds.OVERFLOW) continue;
+            Path path = watched.directory.resolve((Path) event.context());
+            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path)) {
+                try {
+                    register(watched.root, path, changed);
+                } catch (IOException e) {
+                    // Directory is deleted while it is registered, e.g. by clean build
+                }
+            } else if (isClassFile(path)) {
+                addClassName(watched.root, path, changed);
+            }
+        }
+        if (!key.reset())
+            directories.remove(key);
+    }
+
+    private static boolean isClassFile(Path path) {
+        return path.getFileName().toString().endsWith(CLASS_FILE_SUFFIX);
+    }
+
+    private static void addClassName(Path root, Path classFile, Set<String> changed) {
+        String relative = root.relativize(classFile).toString();
+        changed.add(relative
+                .substring(0, relative.length() - CLASS_FILE_SUFFIX.length())
+                .replace(classFile.getFileSystem().getSeparator(), "."));
+    }
+
+    /**
+     * Stops watching, waits for reload in progress unless called by the listener
+     */
+    @Override
+    public void close() {
+        try {
+            // Wakes watcher thread, it is not interrupted, so reading of class files is not interrupted
+            watchService.close();
+        } catch (IOException e) {
+            // Watcher thread stops anyway
+        }
+        if (Thread.currentThread() == thread) return;
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class WatchedDirectory {
+        private final Path root;
+        private final Path directory;
+
+        private WatchedDirectory(Path root, Path directory) {
+            this.root = root;
+            this.directory = directory;
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.ivchenko.ioc.injector;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Splitter;
+import com.ivchenko.ioc.annotation.ConditionalOnClass;
+import com.ivchenko.ioc.annotation.ConditionalOnMissingBean;
+import com.ivchenko.ioc.annotation.ConditionalOnProperty;
+import com.ivchenko.ioc.annotation.Profile;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Conditions of one component: profiles, required classes, property and missing bean types.
+ * Conditions are read from annotations of loaded class or from component index entry, so conditions
+ * except missing bean can be checked before component class is loaded.
+ * Index entry is binary name of the component followed by tab separated conditions:
+ * {@code profile:dev,!prod}, {@code class:com.example.Driver}, {@code property:key=value}
+ * ({@code property?:key=value} if it matches missing property), {@code missingBean:com.example.Cache}
+ */
+public final class ComponentConditions {
+    private static final String[] EMPTY = new String[0];
+    public static final ComponentConditions NONE = new ComponentConditions(EMPTY, EMPTY, null, "", false, EMPTY);
+
+    private final String[] profiles;
+    private final String[] requiredClasses;
+    // Null if there is no property condition
+    private final String property;
+    // Empty if any value except false matches
+    private final String propertyValue;
+    private final boolean matchIfMissing;
+    private final String[] missingBeanTypes;
+
+    /**
+     * @param profiles profiles, one of which should be active, {@code !} prefix negates profile
+     * @param requiredClasses binary names of classes which should be present in class path
+     * @param property property key or null if there is no property condition
+     * @param propertyValue expected property value, empty if any value except {@code false} matches
+     * @param matchIfMissing true if condition matches when property is not set
+     * @param missingBeanTypes binary names of types which should not be implemented by other components
+     */
+    public ComponentConditions(
+            String[] profiles,
+            String[] requiredClasses,
+            String property,
+            String propertyValue,
+            boolean matchIfMissing,
+            String[] missingBeanTypes
+    ) {
+        this.profiles = profiles;
+        this.requiredClasses = requiredClasses;
+        this.property = property;
+        this.propertyValue = propertyValue;
+        this.matchIfMissing = matchIfMissing;
+        this.missingBeanTypes = missingBeanTypes;
+    }
+
+    /**
+     * Reads conditions from annotations of component class
+     * @param clazz component class
+     * @return conditions of the component, {@link #NONE} if there are no conditions
+     */
+    public static ComponentConditions of(Class<?> clazz) {
+        Profile profile = clazz.getAnnotation(Profile.class);
+        ConditionalOnClass onClass = clazz.getAnnotation(ConditionalOnClass.class);
+        ConditionalOnProperty onProperty = clazz.getAnnotation(ConditionalOnProperty.class);
+        ConditionalOnMissingBean onMissingBean = clazz.getAnnotation(ConditionalOnMissingBean.class);
+        if (profile == null && onClass == null && onProperty == null && onMissingBean == null) return NONE;
+        return new ComponentConditions(
+                profile == null ? EMPTY : profile.value(),
+                onClass == null ? EMPTY : onClass.value(),
+                onProperty == null ? null : onProperty.name(),
+                onProperty == null ? "" : onProperty.havingValue(),
+                onProperty != null && onProperty.matchIfMissing(),
+                onMissingBean == null
+                        ? EMPTY
+                        : Arrays.stream(onMissingBean.value()).map(Class::getName).toArray(String[]::new)
+        );
+    }
+
+    /**
+     * @param indexEntry line of component index
+     * @return binary name of the component class
+     */
+    public static String getComponentName(String indexEntry) {
+        int end = indexEntry.indexOf('\t');
+        return end < 0 ? indexEntry : indexEntry.substring(0, end);
+    }
+
+    /**
+     * @param indexEntry line of component index
+     * @return conditions of the component, {@link #NONE} if entry has no conditions
+     */
+    public static ComponentConditions parse(String indexEntry) {
+        if (indexEntry.indexOf('\t') < 0) return NONE;
+        String[] profiles = EMPTY;
+        String[] requiredClasses = EMPTY;
+        // Property name and expected value, null if there is no property condition
+        String[] property = null;
+        boolean matchIfMissing = false;
+        String[] missingBeanTypes = EMPTY;
+        List<String> conditions = Splitter.on('\t').splitToList(indexEntry);
+        for (String condition : conditions.subList(1, conditions.size())) {
+            int separator = condition.indexOf(':');
+            Preconditions.checkState(separator > 0, "Invalid condition in component index: %s", indexEntry);
+            String value = condition.substring(separator + 1);
+            switch (condition.substring(0, separator)) {
+                case "profile":
+                    profiles = split(value);
+                    break;
+                case "class":
+                    requiredClasses = split(value);
+                    break;
+                case "property?":
+                    matchIfMissing = true;
+                    property = parsePropertyCondition(value);
+                    break;
+                case "property":
+                    property = parsePropertyCondition(value);
+                    break;
+                case "missingBean":
+                    missingBeanTypes = split(value);
+                    break;
+                default:
+                    throw new IllegalStateException("Invalid condition in component index: " + indexEntry);
+            }
+        }
+        return new ComponentConditions(
+                profiles,
+                requiredClasses,
+                property == null ? null : property[0],
+                property == null ? "" : property[1],
+                matchIfMissing,
+                missingBeanTypes
+        );
+    }
+
+    /**
+     * @param value property condition in {@code name=value} format, value is empty if it is omitted
+     * @return property name and expected value
+     */
+    private static String[] parsePropertyCondition(String value) {
+        int equals = value.indexOf('=');
+        return equals < 0
+                ? new String[] {value, ""}
+                : new String[] {value.substring(0, equals), value.substring(equals + 1)};
+    }
+
+    private static String[] split(String value) {
+        return Splitter.on(',').omitEmptyStrings().splitToList(value).toArray(EMPTY);
+    }
+
+    /**
+     * @return conditions in component index format, each prefixed with tab, empty string if there are no conditions
+     */
+    public String format() {
+        List<String> conditions = new ArrayList<>();
+        if (profiles.length > 0) conditions.add("profile:" + String.join(",", profiles));
+        if (requiredClasses.length > 0) conditions.add("class:" + String.join(",", requiredClasses));
+        if (property != null)
+            conditions.add((matchIfMissing ? "property?:" : "property:") + property + "=" + propertyValue);
+        if (missingBeanTypes.length > 0) conditions.add("missingBean:" + String.join(",", missingBeanTypes));
+        return conditions.isEmpty() ? "" : "\t" + String.join("\t", conditions);
+    }
+
+    /**
+     * @return true if there are no conditions
+     */
+    public boolean isEmpty() {
+        return profiles.length == 0 && requiredClasses.length == 0 && property == null && missingBeanTypes.length == 0;
+    }
+
+    /**
+     * @return array must not be modified
+     */
+    public String[] getProfiles() {
+        return profiles;
+    }
+
+    /**
+     * @return array must not be modified
+     */
+    public String[] getRequiredClasses() {
+        return requiredClasses;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public String getPropertyValue() {
+        return propertyValue;
+    }
+
+    public boolean isMatchIfMissing() {
+        return matchIfMissing;
+    }
+
+    /**
+     * @return array must not be modified
+     */
+    public String[] getMissingBeanTypes() {
+        return missingBeanTypes;
+    }
+}
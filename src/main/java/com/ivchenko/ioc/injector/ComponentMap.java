@@ -0,0 +1,99 @@
+package com.ivchenko.ioc.injector;
+
+import com.google.common.base.Preconditions;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Read-only map keyed by component classes of a registry, values are held in array indexed by component ids.
+ * Replaces hash maps of started Injector in compact mode, so state of component costs one array slot
+ * instead of a hash entry
+ * @param <V> type of values
+ */
+final class ComponentMap<V> extends AbstractMap<Class<?>, V> {
+    private final ComponentRegistry registry;
+    // Index is id of the component, null if component has no value
+    private final Object[] values;
+    private final int size;
+
+    /**
+     * @param map values of registered components
+     */
+    ComponentMap(ComponentRegistry registry, Map<Class<?>, ? extends V> map) {
+        List<Class<?>> componentClasses = registry.getComponentClasses();
+        this.registry = registry;
+        this.values = new Object[componentClasses.size()];
+        int count = 0;
+        for (int id = 0; id < values.length; id++) {
+            values[id] = map.get(componentClasses.get(id));
+            if (values[id] != null) count++;
+        }
+        Preconditions.checkArgument(count == map.size(), "Map contains classes which are not registered components");
+        this.size = count;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        if (!(key instanceof Class)) return null;
+        int id = registry.getId((Class<?>) key);
+        return id < 0 ? null : (V) values[id];
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Set<Entry<Class<?>, V>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<Class<?>, V>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Iterates over components with values in order of their ids
+     */
+    private final class EntryIterator implements Iterator<Entry<Class<?>, V>> {
+        private int next = skipEmpty(0);
+
+        private int skipEmpty(int id) {
+            while (id < values.length && values[id] == null) id++;
+            return id;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < values.length;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Entry<Class<?>, V> next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            int id = next;
+            next = skipEmpty(id + 1);
+            return new SimpleImmutableEntry<>(registry.getComponentClasses().get(id), (V) values[id]);
+        }
+    }
+}
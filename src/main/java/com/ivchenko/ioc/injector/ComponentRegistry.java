@@ -0,0 +1,208 @@
+package com.ivchenko.ioc.injector;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import com.google.common.primitives.Ints;
+import com.google.common.reflect.TypeToken;
+import com.ivchenko.ioc.annotation.Order;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable registry of component classes, built once at startup.
+ * Maps every type of a component (the class itself, its superclasses and all implemented interfaces)
+ * to implementation classes, so lookups during wiring do not iterate over components.
+ * Every component has dense int id, its index in {@link #getComponentClasses()},
+ * so state of components can be held in arrays instead of maps keyed by class
+ */
+public final class ComponentRegistry {
+    private static final Comparator<Class<?>> NAME_ORDER = Comparator.comparing(Class::getName);
+    private static final Comparator<Class<?>> CANDIDATES_ORDER = Comparator
+            .comparingInt(ComponentRegistry::getOrder)
+            .thenComparing(NAME_ORDER);
+
+    // Index is id of the component
+    private final ImmutableList<Class<?>> componentClasses;
+    // Key: Interface, superclass or component class itself
+    // Value: Ids of implementation classes, ordered by @Order, then by name
+    private final ImmutableMap<Class<?>, int[]> candidatesByType;
+    // Key: Qualifier (simple name of implementation class)
+    // Value: Ids of implementation classes with this simple name
+    private final ImmutableMap<String, int[]> candidatesByQualifier;
+
+    private ComponentRegistry(
+            ImmutableList<Class<?>> componentClasses,
+            ImmutableMap<Class<?>, int[]> candidatesByType,
+            ImmutableMap<String, int[]> candidatesByQualifier
+    ) {
+        this.componentClasses = componentClasses;
+        this.candidatesByType = candidatesByType;
+        this.candidatesByQualifier = candidatesByQualifier;
+    }
+
+    /**
+     * Builds registry for specified component classes
+     * @param componentClasses classes annotated with {@link com.ivchenko.ioc.annotation.Component}
+     * @return registry of component classes
+     */
+    public static ComponentRegistry of(Collection<Class<?>> componentClasses) {
+        List<Class<?>> sortedClasses = new ArrayList<>(componentClasses);
+        sortedClasses.sort(NAME_ORDER);
+        Integer[] candidates = new Integer[sortedClasses.size()];
+        Arrays.setAll(candidates, id -> id);
+        Arrays.sort(candidates, Comparator.comparing(sortedClasses::get, CANDIDATES_ORDER));
+
+        Map<Class<?>, List<Integer>> byType = Maps.newLinkedHashMap();
+        Map<String, List<Integer>> byQualifier = Maps.newLinkedHashMap();
+        for (int id : candidates) {
+            Class<?> c = sortedClasses.get(id);
+            for (Class<?> type : TypeToken.of(c).getTypes().rawTypes()) {
+                if (type != Object.class)
+                    byType.computeIfAbsent(type, t -> new ArrayList<>()).add(id);
+            }
+            byQualifier.computeIfAbsent(c.getSimpleName(), q -> new ArrayList<>()).add(id);
+        }
+        return new ComponentRegistry(
+                ImmutableList.copyOf(sortedClasses),
+                toArrays(byType),
+                toArrays(byQualifier)
+        );
+    }
+
+    /**
+     * Restores registry from previously built mappings, types of components are not inspected
+     * @param componentClasses component classes ordered by name
+     * @param candidatesByType ids of implementation classes of every type, ordered by @Order, then by name
+     * @param candidatesByQualifier ids of implementation classes of every qualifier
+     * @return registry of component classes
+     */
+    static ComponentRegistry of(
+            List<Class<?>> componentClasses,
+            Map<Class<?>, int[]> candidatesByType,
+            Map<String, int[]> candidatesByQualifier
+    ) {
+        return new ComponentRegistry(
+                ImmutableList.copyOf(componentClasses),
+                ImmutableMap.copyOf(candidatesByType),
+                ImmutableMap.copyOf(candidatesByQualifier)
+        );
+    }
+
+    private static int getOrder(Class<?> componentClass) {
+        Order order = componentClass.getAnnotation(Order.class);
+        return order == null ? Integer.MAX_VALUE : order.value();
+    }
+
+    private static <K> ImmutableMap<K, int[]> toArrays(Map<K, List<Integer>> map) {
+        ImmutableMap.Builder<K, int[]> builder = ImmutableMap.builderWithExpectedSize(map.size());
+        map.forEach((key, ids) -> builder.put(key, Ints.toArray(ids)));
+        return builder.build();
+    }
+
+    /**
+     * Returns implementation class for specified type
+     * @param type interface, superclass or component class
+     * @param qualifier simple name of implementation class or null for first implementation ({@link Order})
+     * @return implementation class for specified type
+     */
+    public Class<?> getImplementationClass(Class<?> type, String qualifier) {
+        Class<?> implClass = findImplementationClass(type, qualifier);
+        if (implClass != null) return implClass;
+
+        Preconditions.checkState(candidatesByType.containsKey(type), "Can't find implementation for class: %s", type);
+        throw new IllegalStateException("Can't find implementation class for qualifier: " + qualifier);
+    }
+
+    /**
+     * Returns implementation class for specified type
+     * @param type interface, superclass or component class
+     * @param qualifier simple name of implementation class or null for first implementation ({@link Order})
+     * @return implementation class for specified type or null if there is no such implementation
+     */
+    public Class<?> findImplementationClass(Class<?> type, String qualifier) {
+        int id = findImplementationId(type, qualifier);
+        return id < 0 ? null : componentClasses.get(id);
+    }
+
+    /**
+     * Same as {@link #findImplementationClass(Class, String)}
+     * @return id of implementation class for specified type or -1 if there is no such implementation
+     */
+    int findImplementationId(Class<?> type, String qualifier) {
+        int[] candidates = candidatesByType.get(type);
+        if (candidates == null) return -1;
+        if (qualifier == null) return candidates[0];
+
+        int[] qualified = candidatesByQualifier.get(qualifier);
+        if (qualified != null) {
+            for (int id : qualified) {
+                if (type.isAssignableFrom(componentClasses.get(id))) return id;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Component class is one of candidates of its own type, usually the only one
+     * @return id of component class or -1 if class is not registered
+     */
+    int getId(Class<?> componentClass) {
+        int[] candidates = candidatesByType.get(componentClass);
+        if (candidates == null) return -1;
+        for (int id : candidates) {
+            if (componentClasses.get(id) == componentClass) return id;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns all implementation classes for specified type
+     * @param type interface, superclass or component class
+     * @return implementation classes ordered by {@link Order}, then by name, empty list if there is no implementations
+     */
+    public List<Class<?>> getImplementationClasses(Class<?> type) {
+        int[] candidates = candidatesByType.get(type);
+        if (candidates == null) return ImmutableList.of();
+        ImmutableList.Builder<Class<?>> classes = ImmutableList.builderWithExpectedSize(candidates.length);
+        for (int id : candidates) {
+            classes.add(componentClasses.get(id));
+        }
+        return classes.build();
+    }
+
+    /**
+     * @param type interface, superclass or component class
+     * @return true if at least one component implements specified type
+     */
+    public boolean hasImplementation(Class<?> type) {
+        return candidatesByType.containsKey(type);
+    }
+
+    /**
+     * @return all registered component classes ordered by name
+     */
+    public List<Class<?>> getComponentClasses() {
+        return componentClasses;
+    }
+
+    /**
+     * @return ids of implementation classes of every type, arrays must not be modified
+     */
+    Map<Class<?>, int[]> getCandidatesByType() {
+        return candidatesByType;
+    }
+
+    /**
+     * @return ids of implementation classes of every qualifier, arrays must not be modified
+     */
+    Map<String, int[]> getCandidatesByQualifier() {
+        return candidatesByQualifier;
+    }
+}
@@ -0,0 +1,54 @@
+package com.ivchenko.ioc.injector;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Event published after changed classes of hot reload directories are handled,
+ * received by {@link com.ivchenko.ioc.annotation.EventListener} methods
+ */
+public final class ComponentsReloaded {
+    private final Set<String> changedClasses;
+    private final List<Class<?>> reloadedComponents;
+    // Null if reload succeeded
+    private final Throwable failure;
+
+    ComponentsReloaded(Collection<String> changedClasses, List<Class<?>> reloadedComponents, Throwable failure) {
+        this.changedClasses = ImmutableSet.copyOf(changedClasses);
+        this.reloadedComponents = ImmutableList.copyOf(reloadedComponents);
+        this.failure = failure;
+    }
+
+    /**
+     * @return binary names of created and modified classes
+     */
+    public Set<String> getChangedClasses() {
+        return changedClasses;
+    }
+
+    /**
+     * @return new versions of recreated components in creation order, empty if reload failed
+     */
+    public List<Class<?>> getReloadedComponents() {
+        return reloadedComponents;
+    }
+
+    /**
+     * @return reason why previous components are kept, empty Optional if reload succeeded
+     */
+    public Optional<Throwable> getFailure() {
+        return Optional.ofNullable(failure);
+    }
+
+    @Override
+    public String toString() {
+        return failure == null
+                ? "ComponentsReloaded(" + reloadedComponents + ")"
+                : "ComponentsReloaded(" + changedClasses + ", failure=" + failure + ")";
+    }
+}
@@ -0,0 +1,160 @@
+package com.ivchenko.ioc.injector;
+
+import com.google.common.base.Ascii;
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Checks conditions of components ({@link ComponentConditions}) during startup.
+ * Properties, classes and profiles are checked without loading component classes.
+ * Every checked input is recorded, so cached startup plan is used only if all inputs are unchanged
+ */
+final class ConditionEvaluator {
+    /**
+     * Property with comma separated active profiles
+     */
+    static final String PROFILES_PROPERTY = "ioc.profiles.active";
+
+    private static final String PROFILES_INPUT = "profiles";
+    private static final String CLASS_INPUT = "class:";
+    private static final String PROPERTY_INPUT = "property:";
+
+    private final PropertyStore properties;
+    private final ImmutableSortedSet<String> activeProfiles;
+    private final ClassLoader classLoader;
+    // Key: Checked input: active profiles, class presence or property
+    // Value: Observed value, null for missing property
+    private final Map<String, String> inputs = Maps.newTreeMap();
+
+    ConditionEvaluator(PropertyStore properties, Collection<String> profiles, ClassLoader classLoader) {
+        this.properties = properties;
+        this.classLoader = classLoader;
+        Set<String> active = Sets.newHashSet(profiles);
+        properties.get(PROFILES_PROPERTY).ifPresent(p -> Splitter.on(',').trimResults().omitEmptyStrings().split(p).forEach(active::add));
+        this.activeProfiles = ImmutableSortedSet.copyOf(active);
+    }
+
+    /**
+     * Checks profiles, required classes and property, missing bean condition is checked by {@link #filterMissingBeans(Map)}
+     * @return true if component should be registered
+     */
+    boolean matches(ComponentConditions conditions) {
+        if (conditions.isEmpty()) return true;
+        return matchesProfiles(conditions.getProfiles())
+                && matchesClasses(conditions.getRequiredClasses())
+                && matchesProperty(conditions);
+    }
+
+    private boolean matchesProfiles(String[] profiles) {
+        if (profiles.length == 0) return true;
+        inputs.put(PROFILES_INPUT, getProfilesInput());
+        for (String profile : profiles) {
+            boolean negated = profile.startsWith("!");
+            if (activeProfiles.contains(negated ? profile.substring(1) : profile) != negated) return true;
+        }
+        return false;
+    }
+
+    private boolean matchesClasses(String[] requiredClasses) {
+        for (String name : requiredClasses) {
+            boolean present = isPresent(name);
+            inputs.put(CLASS_INPUT + name, String.valueOf(present));
+            if (!present) return false;
+        }
+        return true;
+    }
+
+    private boolean matchesProperty(ComponentConditions conditions) {
+        String key = conditions.getProperty();
+        if (key == null) return true;
+        String value = properties.get(key).orElse(null);
+        inputs.put(PROPERTY_INPUT + key, value);
+        if (value == null) return conditions.isMatchIfMissing();
+        return conditions.getPropertyValue().isEmpty()
+                ? !Ascii.equalsIgnoreCase(value, "false")
+                : Ascii.equalsIgnoreCase(value, conditions.getPropertyValue());
+    }
+
+    /**
+     * Component with missing bean condition is registered only if none of components without such condition
+     * is assignable to any of specified types
+     * @param candidates components which matched other conditions
+     * @return components which should be registered
+     */
+    Set<Class<?>> filterMissingBeans(Map<Class<?>, ComponentConditions> candidates) {
+        Set<Class<?>> unconditional = Sets.newHashSet();
+        candidates.forEach((c, conditions) -> {
+            if (conditions.getMissingBeanTypes().length == 0) unconditional.add(c);
+        });
+        Set<Class<?>> result = Sets.newHashSet(unconditional);
+        candidates.forEach((c, conditions) -> {
+            if (conditions.getMissingBeanTypes().length > 0 && !hasBean(conditions.getMissingBeanTypes(), unconditional))
+                result.add(c);
+        });
+        return result;
+    }
+
+    private boolean hasBean(String[] typeNames, Set<Class<?>> components) {
+        for (String name : typeNames) {
+            // Missing type can not be implemented
+            if (!isPresent(name)) continue;
+            Class<?> type = load(name);
+            if (components.stream().anyMatch(type::isAssignableFrom)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * @param previousInputs inputs recorded during previous start
+     * @return true if all inputs have the same values now
+     */
+    boolean isUnchanged(Map<String, String> previousInputs) {
+        for (Map.Entry<String, String> input : previousInputs.entrySet()) {
+            String key = input.getKey();
+            String current;
+            if (key.equals(PROFILES_INPUT))
+                current = getProfilesInput();
+            else if (key.startsWith(CLASS_INPUT))
+                current = String.valueOf(isPresent(key.substring(CLASS_INPUT.length())));
+            else if (key.startsWith(PROPERTY_INPUT))
+                current = properties.get(key.substring(PROPERTY_INPUT.length())).orElse(null);
+            else
+                return false;
+            if (!Objects.equals(current, input.getValue())) return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return inputs checked so far, in order of keys
+     */
+    Map<String, String> getInputs() {
+        return inputs;
+    }
+
+    private String getProfilesInput() {
+        return String.join(",", activeProfiles);
+    }
+
+    /**
+     * Class file is searched as resource, class is not loaded
+     */
+    private boolean isPresent(String className) {
+        return classLoader.getResource(className.replace('.', '/') + ".class") != null;
+    }
+
+    private Class<?> load(String className) {
+        try {
+            return Class.forName(className, false, classLoader);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("Condition refers to missing class: " + className, e);
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.ivchenko.ioc.injector;
+
+import com.google.common.base.Preconditions;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+import static com.ivchenko.ioc.injector.util.ReflectionUtils.getPropertyExpression;
+import static com.ivchenko.ioc.injector.util.ReflectionUtils.getQualifierValue;
+
+/**
+ * Describes one constructor parameter or injected member of a component: requested type, qualifier and kind.
+ * Parameters of type {@link Provider} or {@link Supplier} request provider of the type argument,
+ * parameters of type {@code List<T>}, {@code T[]} and {@code Map<String, T>} request all implementations of T,
+ * parameters annotated with {@link com.ivchenko.ioc.annotation.Value} request configuration property
+ */
+public final class Dependency {
+    private final Class<?> type;
+    private final String qualifier;
+    private final Kind kind;
+    // Property expression for VALUE kind, otherwise null
+    private final String property;
+
+    public Dependency(Class<?> type, String qualifier) {
+        this(type, qualifier, Kind.INSTANCE);
+    }
+
+    /**
+     * @param kind what should be injected for requested type
+     */
+    public Dependency(Class<?> type, String qualifier, Kind kind) {
+        this(type, qualifier, kind, null);
+    }
+
+    private Dependency(Class<?> type, String qualifier, Kind kind, String property) {
+        this.type = type;
+        this.qualifier = qualifier;
+        this.kind = kind;
+        this.property = property;
+    }
+
+    /**
+     * @param type type of constructor parameter, field or setter parameter
+     * @param property property key, optionally followed by default value: {@code "pool.size:8"}
+     * @return dependency on configuration property ({@link com.ivchenko.ioc.annotation.Value})
+     */
+    public static Dependency ofProperty(Class<?> type, String property) {
+        return new Dependency(type, null, Kind.VALUE, property);
+    }
+
+    public static Dependency of(Parameter parameter) {
+        String property = getPropertyExpression(parameter);
+        if (property != null) return ofProperty(parameter.getType(), property);
+        return of(parameter.getType(), parameter.getParameterizedType(), getQualifierValue(parameter), parameter);
+    }
+
+    public static Dependency of(Field field) {
+        String property = getPropertyExpression(field);
+        if (property != null) return ofProperty(field.getType(), property);
+        return of(field.getType(), field.getGenericType(), getQualifierValue(field), field);
+    }
+
+    private static Dependency of(Class<?> type, Type genericType, String qualifier, Object source) {
+        Kind kind = Kind.of(type);
+        if (kind == Kind.INSTANCE)
+            return new Dependency(type, qualifier);
+        Preconditions.checkState(
+                qualifier == null || kind == Kind.PROVIDER,
+                "Qualifier can not be used for injection of all implementations: %s", source
+        );
+        if (kind == Kind.ARRAY)
+            return new Dependency(type.getComponentType(), null, kind);
+
+        Preconditions.checkState(
+                genericType instanceof ParameterizedType,
+                "Type argument is not specified: %s", source
+        );
+        Type[] arguments = ((ParameterizedType) genericType).getActualTypeArguments();
+        if (kind == Kind.MAP)
+            Preconditions.checkState(arguments[0] == String.class, "Map key type should be String: %s", source);
+        Type argument = arguments[arguments.length - 1];
+        if (argument instanceof ParameterizedType)
+            argument = ((ParameterizedType) argument).getRawType();
+        Preconditions.checkState(argument instanceof Class, "Invalid type argument: %s", source);
+        return new Dependency((Class<?>) argument, qualifier, kind);
+    }
+
+    /**
+     * @return requested type (interface, superclass or component class),
+     * type argument for provider, element type for collections
+     */
+    public Class<?> getType() {
+        return type;
+    }
+
+    /**
+     * @return simple name of implementation class or null if not specified
+     */
+    public String getQualifier() {
+        return qualifier;
+    }
+
+    /**
+     * @return what should be injected for requested type
+     */
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * @return property key with optional default value for {@link Kind#VALUE}, otherwise null
+     */
+    public String getProperty() {
+        return property;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Dependency)) return false;
+        Dependency that = (Dependency) o;
+        return type == that.type
+                && kind == that.kind
+                && Objects.equals(qualifier, that.qualifier)
+                && Objects.equals(property, that.property);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(type, qualifier, kind, property);
+    }
+
+    @Override
+    public String toString() {
+        if (kind == Kind.VALUE) return type.getName() + " ${" + property + "}";
+        String name = kind.format(type.getName());
+        return qualifier == null ? name : name + " (" + qualifier + ")";
+    }
+
+    /**
+     * What is injected for requested type
+     */
+    public enum Kind {
+        // Instance of implementation
+        INSTANCE("%s"),
+        // Provider of implementation instance
+        PROVIDER("Provider<%s>"),
+        // Immutable list of all implementations
+        LIST("List<%s>"),
+        // Array of all implementations
+        ARRAY("%s[]"),
+        // Immutable map of all implementations keyed by qualifier
+        MAP("Map<String, %s>"),
+        // Configuration property converted to requested type
+        VALUE("%s");
+
+        private final String format;
+
+        Kind(String format) {
+            this.format = format;
+        }
+
+        /**
+         * @param type type of constructor parameter, field or setter parameter
+         * @return kind of injection requested by specified type
+         */
+        public static Kind of(Class<?> type) {
+            if (type == Provider.class || type == Supplier.class) return PROVIDER;
+            if (type == List.class) return LIST;
+            if (type == Map.class) return MAP;
+            if (type.isArray() && !type.getComponentType().isPrimitive()) return ARRAY;
+            return INSTANCE;
+        }
+
+        /**
+         * @return true if all implementations of requested type are injected
+         */
+        public boolean isCollection() {
+            return this == LIST || this == ARRAY || this == MAP;
+        }
+
+        private String format(String typeName) {
+            return String.format(format, typeName);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.ivchenko.ioc.injector;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Explicit dependency graph of components, built from constructor parameters
+ * and injection points of {@link BeanDefinition}s.
+ * Detects circular dependencies and provides creation order
+ */
+public final class DependencyGraph {
+    private static final Class<?>[] NO_CLASSES = new Class<?>[0];
+
+    // Key: Component class
+    // Value: Component classes it depends on
+    private final Map<Class<?>, Class<?>[]> dependencies;
+    // Key: Component class
+    // Value: Component classes which depend on it
+    private final Map<Class<?>, Class<?>[]> dependants;
+    // Dependencies always come before their dependants
+    private final ImmutableList<Class<?>> topologicalOrder;
+    // Key: Component class
+    // Value: Length of the longest chain of dependencies
+    private final Map<Class<?>, Integer> depths;
+
+    private DependencyGraph(
+            Map<Class<?>, Class<?>[]> dependencies,
+            Map<Class<?>, Class<?>[]> dependants,
+            ImmutableList<Class<?>> topologicalOrder,
+            Map<Class<?>, Integer> depths
+    ) {
+        this.dependencies = dependencies;
+        this.dependants = dependants;
+        this.topologicalOrder = topologicalOrder;
+        this.depths = depths;
+    }
+
+    /**
+     * Builds dependency graph for specified components
+     * @param componentClasses component classes ordered by name
+     * @param definitions instantiation plans of all components
+     * @param resolver returns implementation classes of dependency (all implementations for collections),
+     *                 empty list if dependency is provided outside of graph (e.g. by parent Injector)
+     * @return dependency graph
+     * @throws IllegalStateException if there is a circular dependency or unresolvable dependency
+     */
+    public static DependencyGraph of(
+            List<Class<?>> componentClasses,
+            Map<Class<?>, BeanDefinition> definitions,
+            Function<Dependency, List<Class<?>>> resolver
+    ) {
+        return of(componentClasses, definitions, resolver, null);
+    }
+
+    /**
+     * Builds dependency graph for specified components
+     * @param topologicalOrder previously calculated order of the same components,
+     *                         null if order should be calculated and graph checked for cycles
+     * @return dependency graph
+     * @throws IllegalStateException if there is a circular dependency or unresolvable dependency
+     */
+    static DependencyGraph of(
+            List<Class<?>> componentClasses,
+            Map<Class<?>, BeanDefinition> definitions,
+            Function<Dependency, List<Class<?>>> resolver,
+            List<Class<?>> topologicalOrder
+    ) {
+        Map<Class<?>, Class<?>[]> dependencies = Maps.newLinkedHashMap();
+        Map<Class<?>, List<Class<?>>> dependants = Maps.newLinkedHashMap();
+        for (Class<?> c : componentClasses) {
+            Set<Class<?>> componentDependencies = Sets.newLinkedHashSet();
+            BeanDefinition definition = definitions.get(c);
+            for (Dependency d : definition.getDependencies()) {
+                componentDependencies.addAll(resolver.apply(d));
+            }
+            for (InjectionPoint p : definition.getInjectionPoints()) {
+                componentDependencies.addAll(resolver.apply(p.getDependency()));
+            }
+            for (Dependency d : definition.getInterceptorDependencies()) {
+                componentDependencies.addAll(resolver.apply(d));
+            }
+            dependencies.put(c, componentDependencies.toArray(NO_CLASSES));
+            componentDependencies.forEach(d -> dependants.computeIfAbsent(d, k -> new ArrayList<>()).add(c));
+        }
+
+        ImmutableMap.Builder<Class<?>, Class<?>[]> dependantsArrays = ImmutableMap.builder();
+        dependants.forEach((c, list) -> dependantsArrays.put(c, list.toArray(NO_CLASSES)));
+
+        ImmutableList<Class<?>> order = topologicalOrder != null
+                ? ImmutableList.copyOf(topologicalOrder)
+                : sortTopologically(componentClasses, dependencies);
+        return new DependencyGraph(
+                ImmutableMap.copyOf(dependencies),
+                dependantsArrays.build(),
+                order,
+                calculateDepths(dependencies, order)
+        );
+    }
+
+    /**
+     * @param registry registry of the same components
+     * @return graph with the same edges, held in arrays indexed by component ids ({@link ComponentMap})
+     */
+    DependencyGraph compact(ComponentRegistry registry) {
+        return new DependencyGraph(
+                new ComponentMap<>(registry, dependencies),
+                new ComponentMap<>(registry, dependants),
+                topologicalOrder,
+                new ComponentMap<>(registry, depths)
+        );
+    }
+
+    private static ImmutableMap<Class<?>, Integer> calculateDepths(
+            Map<Class<?>, Class<?>[]> dependencies,
+            List<Class<?>> topologicalOrder
+    ) {
+        Map<Class<?>, Integer> depths = Maps.newHashMapWithExpectedSize(topologicalOrder.size());
+        for (Class<?> c : topologicalOrder) {
+            int depth = 0;
+            for (Class<?> d : dependencies.get(c)) {
+                depth = Math.max(depth, depths.get(d) + 1);
+            }
+            depths.put(c, depth);
+        }
+        return ImmutableMap.copyOf(depths);
+    }
+
+    private static ImmutableList<Class<?>> sortTopologically(
+            List<Class<?>> componentClasses,
+            Map<Class<?>, Class<?>[]> dependencies
+    ) {
+        ImmutableList.Builder<Class<?>> order = ImmutableList.builderWithExpectedSize(componentClasses.size());
+        Set<Class<?>> visited = Sets.newHashSetWithExpectedSize(componentClasses.size());
+        Set<Class<?>> inPath = Sets.newLinkedHashSet();
+        for (Class<?> c : componentClasses) {
+            visit(c, dependencies, visited, inPath, order);
+        }
+        return order.build();
+    }
+
+    private static void visit(
+            Class<?> c,
+            Map<Class<?>, Class<?>[]> dependencies,
+            Set<Class<?>> visited,
+            Set<Class<?>> inPath,
+            ImmutableList.Builder<Class<?>> order
+    ) {
+        if (visited.contains(c)) return;
+        if (!inPath.add(c)) {
+            String cycle = inPath.stream()
+                    .dropWhile(p -> p != c)
+                    .map(Class::getSimpleName)
+                    .collect(Collectors.joining(" -> ", "", " -> " + c.getSimpleName()));
+            throw new IllegalStateException(
+                    "Requested bean is already in creation: Maybe there an unresolvable circular reference: " + cycle
+            );
+        }
+        for (Class<?> d : dependencies.get(c)) {
+            visit(d, dependencies, visited, inPath, order);
+        }
+        inPath.remove(c);
+        visited.add(c);
+        order.add(c);
+    }
+
+    /**
+     * @return component classes which specified component depends on, array must not be modified
+     */
+    public Class<?>[] getDependencies(Class<?> componentClass) {
+        return dependencies.getOrDefault(componentClass, NO_CLASSES);
+    }
+
+    /**
+     * @return component classes which depend on specified component, array must not be modified
+     */
+    public Class<?>[] getDependants(Class<?> componentClass) {
+        return dependants.getOrDefault(componentClass, NO_CLASSES);
+    }
+
+    /**
+     * @return length of the longest chain of dependencies, 0 if component has no dependencies
+     */
+    public int getDepth(Class<?> componentClass) {
+        return depths.getOrDefault(componentClass, 0);
+    }
+
+    /**
+     * @return all component classes, each component comes after all its dependencies
+     */
+    public List<Class<?>> getTopologicalOrder() {
+        return topologicalOrder;
+    }
+}
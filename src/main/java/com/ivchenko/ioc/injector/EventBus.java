@@ -0,0 +1,349 @@
+package com.ivchenko.ioc.injector;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.ivchenko.ioc.annotation.EventListener;
+import lombok.SneakyThrows;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Event bus of one Injector. Listeners are registered after components are created and after hot reload,
+ * dispatch table of every event class is resolved on its first event and reused until next registration.
+ * Asynchronous listeners run on virtual threads if JVM supports them (Java 21+), otherwise on daemon threads
+ */
+final class EventBus implements EventPublisher {
+    private static final MethodType LISTENER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    // Null if default executor should be used
+    private final Executor configuredExecutor;
+    // Null until application is started
+    private volatile ImmutableList<Listener> listeners;
+    // Key: Event class
+    // Value: Listeners of the class, its superclasses and interfaces
+    private volatile ClassValue<Listener[]> dispatchTable;
+    // Runs asynchronous and batch deliveries, null if there are no such listeners
+    private Executor executor;
+    // Created at registration if executor is not configured, shut down on close
+    private ExecutorService ownExecutor;
+    // Delays batches, null if there are no batch listeners
+    private ScheduledExecutorService scheduler;
+    // Asynchronous deliveries and batch flushes submitted to executor and not finished yet,
+    // counted for any executor, so close waits for them even if executor is not owned
+    private final AtomicInteger deliveries = new AtomicInteger();
+    private final ReentrantLock deliveriesLock = new ReentrantLock();
+    // Signalled when the last delivery finishes after close
+    private final Condition deliveriesFinished = deliveriesLock.newCondition();
+    private volatile boolean closed;
+
+    EventBus(Executor executor) {
+        this.configuredExecutor = executor;
+    }
+
+    /**
+     * Resolves listener methods of created components, events can be published after registration.
+     * On repeated registration listeners of kept holders are kept with their pending batches,
+     * listeners of replaced holders receive their pending batches in calling thread
+     * @param components component classes in creation order
+     */
+    @SneakyThrows
+    synchronized void register(
+            List<Class<?>> components,
+            Map<Class<?>, BeanDefinition> definitions,
+            Map<Class<?>, BeanHolder> holders
+    ) {
+        ImmutableList<Listener> previous = listeners != null ? listeners : ImmutableList.of();
+        ImmutableList.Builder<Listener> result = ImmutableList.builder();
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        for (Class<?> c : components) {
+            BeanHolder holder = holders.get(c);
+            for (Method m : definitions.get(c).getEventListenerMethods()) {
+                Listener kept = findListener(previous, m, holder);
+                if (kept != null) {
+                    result.add(kept);
+                    continue;
+                }
+                EventListener annotation = m.getAnnotation(EventListener.class);
+                result.add(new Listener(
+                        m,
+                        getEventType(m, annotation.delivery()),
+                        annotation,
+                        lookup.unreflect(m).asType(LISTENER_TYPE),
+                        holder
+                ));
+            }
+        }
+        ImmutableList<Listener> registered = result.build();
+        if (executor == null && registered.stream().anyMatch(l -> l.delivery != EventListener.Delivery.SYNC)) {
+            if (configuredExecutor == null) ownExecutor = newDefaultExecutor();
+            executor = configuredExecutor != null ? configuredExecutor : ownExecutor;
+        }
+        if (scheduler == null && registered.stream().anyMatch(l -> l.delivery == EventListener.Delivery.BATCH)) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(
+                    new ThreadFactoryBuilder().setNameFormat("ioc-event-batch").setDaemon(true).build()
+            );
+        }
+        dispatchTable = newDispatchTable(registered);
+        // Volatile write publishes executors as well
+        listeners = registered;
+        for (Listener listener : previous) {
+            if (!registered.contains(listener)) drainBatches(listener);
+        }
+    }
+
+    private static Listener findListener(List<Listener> listeners, Method method, BeanHolder holder) {
+        for (Listener l : listeners) {
+            if (l.holder == holder && l.method.equals(method)) return l;
+        }
+        return null;
+    }
+
+    private static ClassValue<Listener[]> newDispatchTable(List<Listener> listeners) {
+        return new ClassValue<>() {
+            @Override
+            protected Listener[] computeValue(Class<?> eventClass) {
+                return listeners.stream()
+                        .filter(l -> l.eventType.isAssignableFrom(eventClass))
+                        .toArray(Listener[]::new);
+            }
+        };
+    }
+
+    /**
+     * Batch listener receives {@code List<E>}, other listeners receive {@code E}
+     * @return class of events received by listener
+     */
+    private static Class<?> getEventType(Method method, EventListener.Delivery delivery) {
+        if (delivery != EventListener.Delivery.BATCH) return method.getParameterTypes()[0];
+        Type type = method.getGenericParameterTypes()[0];
+        if (!(type instanceof ParameterizedType)) return Object.class;
+        Type element = ((ParameterizedType) type).getActualTypeArguments()[0];
+        if (element instanceof WildcardType) element = ((WildcardType) element).getUpperBounds()[0];
+        if (element instanceof ParameterizedType) element = ((ParameterizedType) element).getRawType();
+        return element instanceof Class ? (Class<?>) element : Object.class;
+    }
+
+    @Override
+    public void publish(Object event) {
+        Preconditions.checkNotNull(event, "Event is null");
+        Preconditions.checkState(listeners != null, "Events are published before application is started");
+        Preconditions.checkState(!closed, "Application is closed");
+        for (Listener listener : dispatchTable.get(event.getClass())) {
+            switch (listener.delivery) {
+                case SYNC:
+                    listener.invoke(event);
+                    break;
+                case ASYNC:
+                    execute(() -> listener.invoke(event));
+                    break;
+                case BATCH:
+                    enqueue(listener, event);
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Submits delivery to executor, delivery is counted until it finishes
+     */
+    private void execute(Runnable delivery) {
+        deliveries.incrementAndGet();
+        try {
+            executor.execute(() -> {
+                try {
+                    delivery.run();
+                } finally {
+                    finishDelivery();
+                }
+            });
+        } catch (RuntimeException | Error e) {
+            finishDelivery();
+            throw e;
+        }
+    }
+
+    private void finishDelivery() {
+        // Deliveries finished before close are not signalled, close checks the count under the lock
+        if (deliveries.decrementAndGet() != 0 || !closed) return;
+        deliveriesLock.lock();
+        try {
+            deliveriesFinished.signalAll();
+        } finally {
+            deliveriesLock.unlock();
+        }
+    }
+
+    private void enqueue(Listener listener, Object event) {
+        listener.queue.add(event);
+        // Only one publisher reaches the limit, the rest of the queue is delivered by the flush or by the timer
+        if (listener.pending.incrementAndGet() == listener.maxBatchSize)
+            execute(() -> flush(listener));
+        else
+            scheduleFlush(listener);
+    }
+
+    private void scheduleFlush(Listener listener) {
+        if (listener.scheduled.get() || !listener.scheduled.compareAndSet(false, true)) return;
+        scheduler.schedule(() -> {
+            listener.scheduled.set(false);
+            execute(() -> flush(listener));
+        }, listener.maxBatchDelayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Delivers one batch, lock is used instead of synchronized, so virtual threads are not pinned
+     */
+    private void flush(Listener listener) {
+        listener.lock.lock();
+        try {
+            deliverBatch(listener);
+        } finally {
+            listener.lock.unlock();
+            // Rest of the queue is delivered even if listener failed
+            int remaining = listener.pending.get();
+            if (!closed && remaining >= listener.maxBatchSize)
+                execute(() -> flush(listener));
+            else if (!closed && remaining > 0)
+                scheduleFlush(listener);
+        }
+    }
+
+    private static void deliverBatch(Listener listener) {
+        List<Object> batch = new ArrayList<>();
+        Object event;
+        while (batch.size() < listener.maxBatchSize && (event = listener.queue.poll()) != null) {
+            batch.add(event);
+        }
+        if (batch.isEmpty()) return;
+        listener.pending.addAndGet(-batch.size());
+        listener.invoke(Collections.unmodifiableList(batch));
+    }
+
+    /**
+     * Delivers all pending batches of listener in calling thread
+     */
+    private static void drainBatches(Listener listener) {
+        if (listener.delivery != EventListener.Delivery.BATCH) return;
+        listener.lock.lock();
+        try {
+            while (!listener.queue.isEmpty()) {
+                deliverBatch(listener);
+            }
+        } finally {
+            listener.lock.unlock();
+        }
+    }
+
+    /**
+     * Virtual thread per task executor is resolved reflectively, so library still runs on Java 11
+     */
+    private static ExecutorService newDefaultExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(
+                    new ThreadFactoryBuilder().setNameFormat("ioc-event-%d").setDaemon(true).build()
+            );
+        }
+    }
+
+    /**
+     * Stops accepting events, delivers pending batches in calling thread
+     * and waits for asynchronous deliveries, so listeners are not destroyed while they handle events
+     * @param timeout maximal wait of asynchronous deliveries
+     */
+    void close(Duration timeout) {
+        closed = true;
+        long deadline = System.nanoTime() + timeout.toNanos();
+        ImmutableList<Listener> registered = listeners;
+        try {
+            if (scheduler != null) {
+                scheduler.shutdownNow();
+                // Timer which is already running submits its flush before deliveries are awaited
+                scheduler.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            }
+            if (registered != null)
+                registered.forEach(EventBus::drainBatches);
+            awaitDeliveries(deadline);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (ownExecutor != null) ownExecutor.shutdown();
+        }
+    }
+
+    private void awaitDeliveries(long deadline) throws InterruptedException {
+        deliveriesLock.lock();
+        try {
+            long remaining = deadline - System.nanoTime();
+            while (deliveries.get() > 0 && remaining > 0) {
+                remaining = deliveriesFinished.awaitNanos(remaining);
+            }
+        } finally {
+            deliveriesLock.unlock();
+        }
+    }
+
+    /**
+     * Listener method bound to holder of its component
+     */
+    private static final class Listener {
+        private final Method method;
+        private final Class<?> eventType;
+        private final EventListener.Delivery delivery;
+        private final int maxBatchSize;
+        private final long maxBatchDelayNanos;
+        // Invokes method with (component, event)
+        private final MethodHandle handle;
+        private final BeanHolder holder;
+        // Batch state, unused by other deliveries
+        private final Queue<Object> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger pending = new AtomicInteger();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private Listener(Method method, Class<?> eventType, EventListener annotation, MethodHandle handle, BeanHolder holder) {
+            Preconditions.checkState(annotation.maxBatchSize() > 0, "Invalid EventListener batch size: %s", method);
+            this.method = method;
+            this.eventType = eventType;
+            this.delivery = annotation.delivery();
+            this.maxBatchSize = annotation.maxBatchSize();
+            this.maxBatchDelayNanos = PropertyStore.parseDuration(annotation.maxBatchDelay()).toNanos();
+            this.handle = handle;
+            this.holder = holder;
+        }
+
+        @SneakyThrows
+        private void invoke(Object event) {
+            handle.invokeExact(holder.get(), event);
+        }
+
+        @Override
+        public String toString() {
+            return "Listener(" + method + ")";
+        }
+    }
+}
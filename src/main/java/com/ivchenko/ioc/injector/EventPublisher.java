@@ -0,0 +1,15 @@
+package com.ivchenko.ioc.injector;
+
+/**
+ * Publishes events to {@link com.ivchenko.ioc.annotation.EventListener} methods of components of the Injector.
+ * Provided by Injector, components receive it as any other dependency
+ */
+public interface EventPublisher {
+    /**
+     * Delivers event to listeners of its class, its superclasses and interfaces.
+     * Synchronous listeners are invoked before return, in creation order of their components
+     * @param event event, not null
+     * @throws IllegalStateException if application is not started yet or is closed
+     */
+    void publish(Object event);
+}
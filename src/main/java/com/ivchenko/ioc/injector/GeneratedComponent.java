@@ -0,0 +1,75 @@
+package com.ivchenko.ioc.injector;
+
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Compile time resolved instantiation plan of one component, created by generated {@link GeneratedWiring}.
+ * Constructor and PostConstructor are invoked with plain Java calls instead of reflection
+ */
+public final class GeneratedComponent {
+    private final Class<?> type;
+    private final String scope;
+    private final boolean lazy;
+    private final Dependency[] dependencies;
+    private final Function<Object[], Object> constructor;
+    private final Consumer<Object> postConstructor;
+
+    /**
+     * @param type component class
+     * @param scope name of the scope ({@link Scope})
+     * @param lazy true if component is annotated with {@link com.ivchenko.ioc.annotation.Lazy}
+     * @param dependencies dependencies in order of constructor parameters
+     * @param constructor creates instance from dependencies instances,
+     *                    null if component can not be created without reflection
+     * @param postConstructor invokes PostConstructor method, null if there is no PostConstructor method
+     */
+    public GeneratedComponent(
+            Class<?> type,
+            String scope,
+            boolean lazy,
+            Dependency[] dependencies,
+            Function<Object[], Object> constructor,
+            Consumer<Object> postConstructor
+    ) {
+        this.type = type;
+        this.scope = scope;
+        this.lazy = lazy;
+        this.dependencies = dependencies;
+        this.constructor = constructor;
+        this.postConstructor = postConstructor;
+    }
+
+    public Class<?> getType() {
+        return type;
+    }
+
+    public String getScope() {
+        return scope;
+    }
+
+    public boolean isLazy() {
+        return lazy;
+    }
+
+    /**
+     * @return dependencies in order of constructor parameters, array must not be modified
+     */
+    public Dependency[] getDependencies() {
+        return dependencies;
+    }
+
+    /**
+     * @return function creating instance or null if component should be created reflectively
+     */
+    public Function<Object[], Object> getConstructor() {
+        return constructor;
+    }
+
+    /**
+     * @return consumer invoking PostConstructor method or null if there is no PostConstructor method
+     */
+    public Consumer<Object> getPostConstructor() {
+        return postConstructor;
+    }
+}
@@ -0,0 +1,24 @@
+package com.ivchenko.ioc.injector;
+
+import java.util.List;
+
+/**
+ * Wiring generated at compile time by {@link com.ivchenko.ioc.processor.WiringProcessor}.
+ * Implementations are registered in {@code META-INF/services/com.ivchenko.ioc.injector.GeneratedWiring},
+ * if Injector finds one, it skips class path scanning and reflective instantiation
+ */
+public interface GeneratedWiring {
+    /**
+     * @return all components of one compilation unit
+     */
+    List<GeneratedComponent> getComponents();
+
+    /**
+     * Components with conditions are not created by generated code,
+     * they are loaded only if their conditions match
+     * @return component index entries of conditional components ({@link ComponentConditions})
+     */
+    default List<String> getConditionalComponents() {
+        return List.of();
+    }
+}
@@ -0,0 +1,80 @@
+package com.ivchenko.ioc.injector;
+
+import lombok.SneakyThrows;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.VarHandle;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+
+/**
+ * Autowired field or setter of a component with its dependency.
+ * Accessor is resolved once, so injection neither searches members
+ * nor calls {@link java.lang.reflect.AccessibleObject#setAccessible(boolean)}
+ */
+public final class InjectionPoint {
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    // Field or method
+    private final Member member;
+    private final Dependency dependency;
+    // Takes instance and value
+    private final MethodHandle setter;
+
+    private InjectionPoint(Member member, Dependency dependency, MethodHandle setter) {
+        this.member = member;
+        this.dependency = dependency;
+        this.setter = setter;
+    }
+
+    /**
+     * Resolves accessor of autowired field or setter
+     * @param member field or single parameter method
+     * @return injection point
+     */
+    @SneakyThrows
+    public static InjectionPoint of(Member member) {
+        // Private members are accessed through lookup with private access to declaring class
+        MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(member.getDeclaringClass(), MethodHandles.lookup());
+        if (member instanceof Field) {
+            Field field = (Field) member;
+            MethodHandle setter = lookup.unreflectVarHandle(field)
+                    .toMethodHandle(VarHandle.AccessMode.SET)
+                    .asType(SETTER_TYPE);
+            return new InjectionPoint(field, Dependency.of(field), setter);
+        }
+        Method method = (Method) member;
+        // Returned value of setter is discarded
+        MethodHandle setter = lookup.unreflect(method).asType(SETTER_TYPE);
+        return new InjectionPoint(method, Dependency.of(method.getParameters()[0]), setter);
+    }
+
+    /**
+     * Injects value to specified instance
+     * @param instance instance of the component
+     * @param value instance of the dependency
+     */
+    @SneakyThrows
+    public void inject(Object instance, Object value) {
+        setter.invokeExact(instance, value);
+    }
+
+    /**
+     * @return autowired field or method
+     */
+    public Member getMember() {
+        return member;
+    }
+
+    public Dependency getDependency() {
+        return dependency;
+    }
+
+    @Override
+    public String toString() {
+        return member.getDeclaringClass().getName() + "." + member.getName() + " <- " + dependency;
+    }
+}
@@ -1,203 +1,1126 @@
 package com.ivchenko.ioc.injector;
 
 import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
-import com.google.common.reflect.Invokable;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.ivchenko.ioc.annotation.Component;
-import com.ivchenko.ioc.injector.util.InjectionUtils;
+import com.ivchenko.ioc.annotation.Order;
+import com.ivchenko.ioc.injector.cache.CacheManager;
+import com.ivchenko.ioc.injector.report.StartupPhase;
+import com.ivchenko.ioc.injector.report.StartupRecorder;
+import com.ivchenko.ioc.injector.report.StartupReport;
 import lombok.SneakyThrows;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.Method;
-import java.lang.reflect.Parameter;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.ServiceLoader;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
 
 import static com.ivchenko.ioc.injector.util.ClassLoaderUtils.getClassesInPackage;
-import static com.ivchenko.ioc.injector.util.InjectionUtils.getImplementationClass;
-import static com.ivchenko.ioc.injector.util.ReflectionUtils.*;
+import static com.ivchenko.ioc.injector.util.ClassLoaderUtils.getIndexEntriesInPackage;
+import static com.ivchenko.ioc.injector.util.ClassLoaderUtils.loadIndexedClass;
+import static com.ivchenko.ioc.injector.util.ReflectionUtils.getClassesAnnotatedWith;
 
 /**
- * Injector, creates objects for {@link Component} classes, injects all dependencies
+ * Injector, creates objects for {@link Component} classes, injects all dependencies.
+ * Every Injector is an isolated container, several Injectors can run in one JVM.
+ * Child Injector resolves components missing in its own package from parent Injector.
+ * Closing Injector destroys its singleton components in reverse dependency order
  */
-public class Injector {
-    // Key: Implementation class
-    // Value: Implemented interface
-    private Map<Class<?>, Class<?>> injectionMap;
-    // Key: Instance class
-    // Value: Instance
-    private Map<Class<?>, Object> applicationScope;
+public class Injector implements AutoCloseable {
+    // Statuses of components
+    private static final byte NOT_CREATED = 0;
+    private static final byte CREATING = 1;
+    private static final byte CREATED = 2;
 
-    private Map<Class<?>, ComponentStatus> componentsStatusMap; // Can be replaced with observer =\
+    // Published after all components are created, replaced as a whole by hot reload, null until started
+    private volatile State state;
+    private volatile StartupReport startupReport;
+    // Completed when WarmUp methods of all created components are finished
+    private volatile CompletableFuture<Void> readiness;
 
-    private Injector() {
-        injectionMap = Maps.newHashMap();
-        applicationScope = Maps.newHashMap();
-        componentsStatusMap = Maps.newHashMap();
+    // Runs creation of components, components are created as soon as all their dependencies are created
+    private final Executor executor;
+    // Null for root Injector
+    private final Injector parent;
+    // Key: Scope name
+    // Value: Custom scope
+    private final Map<String, Scope> customScopes;
+    // Null if startup plan is not cached
+    private final Path cacheDirectory;
+    private final PropertyStore properties;
+    private final CacheManager cacheManager = new CacheManager();
+    private final EventBus eventBus;
+    // Key: Class of component provided by the container itself, e.g. built-in interceptor
+    // Value: Holder of the instance
+    private final Map<Class<?>, BeanHolder> containerComponents;
+    // Active profiles set in builder, in addition to profiles of ConditionEvaluator.PROFILES_PROPERTY
+    private final Set<String> profiles;
+    // Deadline of close() without arguments
+    private final Duration shutdownTimeout;
+    // Null if shutdown hook is not registered
+    private final Thread shutdownHook;
+    // Class output directories watched for changes, empty if hot reload is disabled
+    private final List<Path> reloadDirectories;
+    // Loads components, parent of hot reload class loaders
+    private final ClassLoader classLoader;
+    // Serializes hot reloads
+    private final Object reloadLock = new Object();
+    // Maps keyed by component classes are replaced with arrays after startup
+    private final boolean compact;
+    // Null if hot reload is disabled
+    private ClassWatcher classWatcher;
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    private Injector(Builder builder) {
+        this.executor = builder.executor;
+        this.cacheDirectory = builder.cacheDirectory;
+        this.parent = builder.parent;
+        this.customScopes = ImmutableMap.copyOf(builder.customScopes);
+        this.shutdownTimeout = builder.shutdownTimeout;
+        this.profiles = ImmutableSet.copyOf(builder.profiles);
+        this.shutdownHook = builder.shutdownHook ? new Thread(this::close, "ioc-shutdown") : null;
+        this.reloadDirectories = ImmutableList.copyOf(builder.reloadDirectories);
+        this.classLoader = Thread.currentThread().getContextClassLoader();
+        this.compact = builder.compact;
+        this.properties = PropertyStore.load(
+                builder.propertyFiles,
+                builder.properties,
+                parent == null ? null : parent.properties
+        );
+        this.eventBus = new EventBus(builder.eventExecutor);
+        this.containerComponents = ImmutableMap.of(
+                CacheManager.class, new BeanHolder.Constant(cacheManager),
+                EventPublisher.class, new BeanHolder.Constant(eventBus)
+        );
+    }
+
+    /**
+     * Creates builder of new isolated Injector
+     * @param mainClass main application class, components are searched in its package
+     * @return builder of Injector
+     */
+    public static Builder create(Class<?> mainClass) {
+        return new Builder(mainClass);
     }
 
     /**
      * Initializes injector and starts application
      * @param mainClass main application class
+     * @return started injector
+     */
+    public static Injector startApplication(Class<?> mainClass) {
+        return create(mainClass).start();
+    }
+
+    /**
+     * Initializes injector and starts application.
+     * Independent components are created in parallel on specified executor,
+     * each component waits only for its own dependencies
+     * @param mainClass main application class
+     * @param executor executor for components creation, e.g. {@link java.util.concurrent.ForkJoinPool}
+     * @return started injector
+     */
+    public static Injector startApplication(Class<?> mainClass, Executor executor) {
+        return create(mainClass).executor(executor).start();
+    }
+
+    /**
+     * Returns instance of the component for specified type.
+     * Can be called concurrently from any thread after application is started
+     * @param type interface, superclass or component class
+     * @return instance of the implementation class for specified type
+     */
+    public <T> T getBean(Class<T> type) {
+        return getBean(type, null);
+    }
+
+    /**
+     * Returns instance of the component for specified type and qualifier.
+     * Can be called concurrently from any thread after application is started
+     * @param type interface, superclass or component class
+     * @param qualifier simple name of implementation class ({@link Class#getSimpleName()})
+     * @return instance of the implementation class for specified type
+     */
+    public <T> T getBean(Class<T> type, String qualifier) {
+        // Read once, so concurrent close does not turn missing component into NullPointerException
+        BeanSnapshot snapshot = getSnapshot();
+        BeanHolder holder = snapshot.findHolder(type, qualifier);
+        if (holder == null && parent != null)
+            holder = parent.findHolder(type, qualifier);
+        if (holder == null) {
+            // Throws exception with the reason
+            snapshot.getRegistry().getImplementationClass(type, qualifier);
+        }
+        return type.cast(holder.get());
+    }
+
+    /**
+     * @return parent Injector or empty Optional for root Injector
+     */
+    public Optional<Injector> getParent() {
+        return Optional.ofNullable(parent);
+    }
+
+    /**
+     * @return configuration properties, read once at startup
      */
-    public static void startApplication(Class<?> mainClass) {
-        getInstance().initialize(mainClass);
+    public PropertyStore getProperties() {
+        return properties;
+    }
+
+    /**
+     * @return caches of {@link com.ivchenko.ioc.annotation.Cacheable} methods of components of this Injector
+     */
+    public CacheManager getCacheManager() {
+        return cacheManager;
+    }
+
+    /**
+     * Components may inject {@link EventPublisher} instead
+     * @return publisher of events to {@link com.ivchenko.ioc.annotation.EventListener} methods of this Injector
+     */
+    public EventPublisher getEventPublisher() {
+        return eventBus;
+    }
+
+    /**
+     * Searches component in this Injector, then in parents
+     * @return holder of the component or null if there is no such component
+     */
+    private BeanHolder findHolder(Class<?> type, String qualifier) {
+        BeanHolder holder = getSnapshot().findHolder(type, qualifier);
+        if (holder == null && parent != null)
+            return parent.findHolder(type, qualifier);
+        return holder;
+    }
+
+    /**
+     * @return published components of started Injector
+     */
+    private BeanSnapshot getSnapshot() {
+        State state = this.state;
+        Preconditions.checkState(state != null && !closed.get(), "Application is not started or is closed");
+        return state.snapshot;
+    }
+
+    /**
+     * @return resolved dependency graph of components of this Injector, dependencies from parent Injector are not included
+     */
+    public DependencyGraph getDependencyGraph() {
+        State state = this.state;
+        Preconditions.checkState(state != null, "Application is not started");
+        return state.graph;
+    }
+
+    /**
+     * @return timings of application startup
+     */
+    public StartupReport getStartupReport() {
+        Preconditions.checkState(startupReport != null, "Application is not started");
+        return startupReport;
     }
 
     @SneakyThrows
     private void initialize(Class<?> mainClass) {
-        Set<Class<?>> packageClasses = getClassesInPackage(mainClass.getPackageName());
-        Set<Class<?>> componentClasses = getClassesAnnotatedWith(Component.class, packageClasses);
-
-        // Populating injectionMap
-        for (Class<?> c : componentClasses) {
-            Class<?>[] interfaces = c.getInterfaces();
-            if (interfaces.length == 0)
-                injectionMap.put(c, c);
-            else for (Class<?> i : interfaces)
-                injectionMap.put(c, i);
+        StartupRecorder recorder = new StartupRecorder();
+        StartupCache cache = cacheDirectory == null ? null : new StartupCache(cacheDirectory, mainClass);
+        ConditionEvaluator conditions = new ConditionEvaluator(
+                properties,
+                profiles,
+                Thread.currentThread().getContextClassLoader()
+        );
+        StartupCache.Plan cachedPlan = cache == null ? null : cache.load();
+        // Components may match other conditions now
+        if (cachedPlan != null && !conditions.isUnchanged(cachedPlan.getConditionInputs()))
+            cachedPlan = null;
+        State state = new State();
+        if (cachedPlan != null) {
+            // Discovery is skipped, plan of previous start is used
+            recorder.phaseFinished(StartupPhase.CLASSPATH_SCAN);
+            state.registry = cachedPlan.getRegistry();
+            state.beanDefinitions = Maps.newHashMap(cachedPlan.getDefinitions());
+            recorder.phaseFinished(StartupPhase.ANNOTATION_FILTERING);
+            state.graph = DependencyGraph.of(
+                    state.registry.getComponentClasses(),
+                    state.beanDefinitions,
+                    d -> resolveLocalClasses(state, d),
+                    cachedPlan.getTopologicalOrder()
+            );
+        } else {
+            discoverComponents(state, mainClass, conditions, recorder);
+            state.graph = DependencyGraph.of(
+                    state.registry.getComponentClasses(),
+                    state.beanDefinitions,
+                    d -> resolveLocalClasses(state, d)
+            );
         }
 
-        componentClasses.forEach(c -> componentsStatusMap.put(c, ComponentStatus.NOT_CREATED));
+        state.componentStatuses = new byte[state.registry.getComponentClasses().size()];
+        state.applicationScope = Maps.newConcurrentMap();
+        state.collectionHolders = Maps.newConcurrentMap();
+        Map<Class<?>, BeanFactory> factories = Maps.newHashMap();
+        for (Class<?> c : state.registry.getComponentClasses()) {
+            BeanFactory factory = new BeanFactory(state.beanDefinitions.get(c));
+            factories.put(c, factory);
+            state.applicationScope.put(c, createHolder(state, factory));
+        }
+        factories.values().forEach(f -> {
+            f.resolve(d -> resolveHolder(state, d));
+            f.setRecorder(recorder);
+            cacheManager.resolve(f.getDefinition().getInterceptedMethods(CacheManager.class));
+        });
+        recorder.phaseFinished(StartupPhase.MAP_POPULATION);
         // Creating instances
+        // Lazy and not singleton components are not created,
+        // but their dependencies are, so they can be created on request
+        Map<Class<?>, CompletableFuture<?>> creations = Maps.newHashMap();
+        for (Class<?> c : state.graph.getTopologicalOrder()) {
+            CompletableFuture<?>[] dependencies = Arrays.stream(state.graph.getDependencies(c))
+                    .map(creations::get)
+                    .toArray(CompletableFuture<?>[]::new);
+            CompletableFuture<Void> dependenciesCreation = CompletableFuture.allOf(dependencies);
+            creations.put(c, state.beanDefinitions.get(c).isEager()
+                    ? dependenciesCreation.thenRunAsync(() -> createSingleton(state, c, factories.get(c)), executor)
+                    : dependenciesCreation);
+        }
+        awaitCreation(creations.values());
+        factories.values().forEach(f -> f.setRecorder(null));
+        recorder.phaseFinished(StartupPhase.INSTANTIATION);
+
+        eventBus.register(state.graph.getTopologicalOrder(), state.beanDefinitions, state.applicationScope);
+        startupReport = recorder.build(state.graph::getDepth);
+        // Plan is saved before maps are compacted
+        if (cache != null && cachedPlan == null)
+            saveStartupPlan(state, cache, conditions);
+        publish(state);
+        if (shutdownHook != null)
+            Runtime.getRuntime().addShutdownHook(shutdownHook);
+        readiness = warmUp(state, state.graph.getTopologicalOrder());
+        if (!reloadDirectories.isEmpty())
+            classWatcher = new ClassWatcher(reloadDirectories, this::reloadChanged);
+    }
+
+    /**
+     * Publishes state to requests with one write. In compact mode maps of instantiation plans, holders
+     * and dependency graph, keyed by component classes, are replaced with arrays indexed by component ids first.
+     * Maps are not modified after publication, hot reload builds new state and compacts it again
+     */
+    private void publish(State state) {
+        if (compact) {
+            state.beanDefinitions = new ComponentMap<>(state.registry, state.beanDefinitions);
+            state.applicationScope = new ComponentMap<>(state.registry, state.applicationScope);
+            state.graph = state.graph.compact(state.registry);
+        }
+        state.snapshot = new BeanSnapshot(state.registry, state.applicationScope);
+        this.state = state;
+    }
+
+    /**
+     * Starts WarmUp methods of created components concurrently,
+     * on executor of the Injector or on common pool if components were created in calling thread
+     * @return future completed when all warm-ups are finished
+     */
+    private CompletableFuture<Void> warmUp(State state, List<Class<?>> componentClasses) {
+        Executor warmUpExecutor = executor == MoreExecutors.directExecutor() ? ForkJoinPool.commonPool() : executor;
+        List<CompletableFuture<?>> warmUps = Lists.newArrayList();
         for (Class<?> c : componentClasses) {
-            if (!applicationScope.containsKey(c))
-                applicationScope.put(c, createInstance(c));
+            BeanDefinition definition = state.beanDefinitions.get(c);
+            Object instance = state.applicationScope.get(c).getCreated();
+            if (instance == null || !definition.hasWarmUp()) continue;
+            warmUps.add(CompletableFuture
+                    .supplyAsync(() -> definition.invokeWarmUp(instance), warmUpExecutor)
+                    .thenCompose(stage -> stage != null ? stage : CompletableFuture.completedFuture(null)));
         }
+        return CompletableFuture.allOf(warmUps.toArray(CompletableFuture<?>[]::new));
     }
 
-    private Object createInstance(Class<?> clazz) {
-        checkCreationPreconditions(clazz);
-        componentsStatusMap.put(clazz, ComponentStatus.CREATING);
-        // for not autowired with no args constructor
-        if (!hasAutowiredConstructor(clazz) && hasNoArgsConstructor(clazz)) {
-            return createInstanceNoArgs(clazz);
+    /**
+     * Application can accept requests before it is ready, e.g. in degraded mode while caches are filled
+     * @return future completed when WarmUp methods of all created components are finished,
+     * completed exceptionally if some WarmUp method failed
+     */
+    public CompletableFuture<Void> readiness() {
+        Preconditions.checkState(readiness != null, "Application is not started");
+        // Copy can not complete readiness of the Injector
+        return readiness.copy();
+    }
+
+    /**
+     * @return true if WarmUp methods of all created components are successfully finished
+     */
+    public boolean isReady() {
+        return readiness != null && readiness.isDone() && !readiness.isCompletedExceptionally();
+    }
+
+    /**
+     * Recreates changed components and all components depending on them, directly or through other components.
+     * New versions of their classes are loaded from hot reload directories by new class loader,
+     * other components are kept with their state. Components are created in calling thread,
+     * then all of them are published at once: requests started before the swap use previous components,
+     * later requests use new ones. Replaced singletons are destroyed after the swap.
+     * Components are requested by interfaces, class of previous version does not find reloaded component
+     * @param classNames binary names of changed classes, classes which are not components are ignored
+     * @return new versions of recreated components in creation order, empty list if no component has changed
+     * @throws IllegalStateException if hot reload is disabled, if new components can not be created,
+     * then previous components are kept, or if destruction of replaced components failed
+     */
+    public List<Class<?>> reload(Collection<String> classNames) {
+        Preconditions.checkState(!reloadDirectories.isEmpty(), "Hot reload is not enabled");
+        synchronized (reloadLock) {
+            State current = state;
+            Preconditions.checkState(current != null && !closed.get(), "Application is not started or is closed");
+            Map<String, Class<?>> componentsByName = current.registry.getComponentClasses().stream()
+                    .collect(Collectors.toMap(Class::getName, c -> c));
+            Set<Class<?>> changed = classNames.stream()
+                    .map(ReloadingClassLoader::getTopLevelName)
+                    .map(componentsByName::get)
+                    .filter(c -> c != null)
+                    .collect(Collectors.toSet());
+            if (changed.isEmpty()) return ImmutableList.of();
+
+            List<Class<?>> replaced = collectDependants(current.graph, changed);
+            ClassLoader loader = new ReloadingClassLoader(
+                    reloadDirectories,
+                    replaced.stream().map(Class::getName).collect(Collectors.toList()),
+                    componentsByName,
+                    classLoader
+            );
+            // Key: Previous version of component class
+            // Value: New version
+            Map<Class<?>, Class<?>> replacements = Maps.newLinkedHashMap();
+            for (Class<?> c : replaced) {
+                replacements.put(c, loadReloadedClass(c.getName(), loader));
+            }
+            // Current state is not modified, so it is kept as is if reload fails
+            State next = new State();
+            List<Class<?>> reloaded;
+            try {
+                reloaded = createReplacements(current, next, replacements);
+                eventBus.register(next.graph.getTopologicalOrder(), next.beanDefinitions, next.applicationScope);
+            } catch (RuntimeException | Error e) {
+                // Replacements are not published, so created ones are destroyed here
+                destroyReplacements(next, replacements.values(), e);
+                throw e;
+            }
+            publish(next);
+            readiness = CompletableFuture.allOf(readiness, warmUp(next, reloaded));
+
+            List<Throwable> failures = Lists.newArrayList();
+            for (Class<?> c : Lists.reverse(replaced)) {
+                Object instance = current.applicationScope.get(c).getCreated();
+                BeanDefinition definition = current.beanDefinitions.get(c);
+                if (instance != null && definition.hasPreDestroy())
+                    destroy(definition, instance, failures);
+                cacheManager.invalidate(c);
+            }
+            if (!failures.isEmpty()) {
+                IllegalStateException exception = new IllegalStateException("Failed to destroy replaced components");
+                failures.forEach(exception::addSuppressed);
+                throw exception;
+            }
+            return reloaded;
         }
-        // for not autowired without no args constructor
-        if (!hasAutowiredConstructor(clazz) && !hasNoArgsConstructor(clazz)) {
-            return createInstanceFirstConstructor(clazz);
+    }
+
+    /**
+     * Destroys replacements created by failed hot reload, in reverse creation order
+     * @param state unpublished state of the reload, possibly incomplete
+     * @param failure reason of the failed reload, destruction failures are added to it as suppressed exceptions
+     */
+    private void destroyReplacements(State state, Collection<Class<?>> replacements, Throwable failure) {
+        List<Throwable> failures = Lists.newArrayList();
+        if (state.graph != null && state.applicationScope != null) {
+            for (Class<?> c : Lists.reverse(state.graph.getTopologicalOrder())) {
+                BeanHolder holder = state.applicationScope.get(c);
+                Object instance = replacements.contains(c) && holder != null ? holder.getCreated() : null;
+                if (instance != null && state.beanDefinitions.get(c).hasPreDestroy())
+                    destroy(state.beanDefinitions.get(c), instance, failures);
+            }
         }
-        // for autowired
-        if (hasAutowiredConstructor(clazz)) {
-            return createInstanceAutowired(clazz);
+        replacements.forEach(cacheManager::invalidate);
+        failures.forEach(failure::addSuppressed);
+    }
+
+    /**
+     * @return changed components and components depending on them, in creation order
+     */
+    private static List<Class<?>> collectDependants(DependencyGraph graph, Set<Class<?>> changed) {
+        Set<Class<?>> affected = Sets.newHashSet(changed);
+        List<Class<?>> order = graph.getTopologicalOrder();
+        for (Class<?> c : order) {
+            if (affected.contains(c))
+                affected.addAll(Arrays.asList(graph.getDependants(c)));
         }
-        // Should not happen
-        throw new IllegalStateException("Unknown error while creating instance for class: " + clazz);
+        return order.stream().filter(affected::contains).collect(Collectors.toList());
     }
 
-    @SneakyThrows
-    private Object createInstanceNoArgs(Class<?> clazz) {
-        Object instance = clazz.getConstructor().newInstance();
-        componentsStatusMap.put(clazz, ComponentStatus.CREATED);
-        return instance;
+    private static Class<?> loadReloadedClass(String name, ClassLoader loader) {
+        try {
+            return Class.forName(name, false, loader);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("Component can not be reloaded: " + name, e);
+        }
     }
 
-    @SneakyThrows
-    private Object createInstanceFirstConstructor(Class<?> clazz) {
-        Set<Constructor<?>> constructors = getAllConstructors(clazz);
-        Preconditions.checkState(
-                constructors.size() > 0,
-                "No public constructors declared: " + clazz
+    /**
+     * Fills new state with new versions of components and kept components of current state, creates new versions.
+     * New components are wired with the new state, which is not published to requests
+     * @param next empty state, its fields are assigned as soon as they are built, so failed reload can be cleaned up
+     * @return new versions of components in creation order
+     */
+    private List<Class<?>> createReplacements(State current, State next, Map<Class<?>, Class<?>> replacements) {
+        Map<Class<?>, BeanDefinition> definitions = Maps.newHashMap(current.beanDefinitions);
+        Map<Class<?>, BeanHolder> holders = Maps.newConcurrentMap();
+        holders.putAll(current.applicationScope);
+        replacements.forEach((previous, c) -> {
+            definitions.remove(previous);
+            holders.remove(previous);
+            // Generated wiring refers to previous versions, so new ones are inspected
+            definitions.put(c, BeanDefinition.of(c));
+        });
+        next.beanDefinitions = definitions;
+        next.applicationScope = holders;
+        // Collections containing replaced components are held only by replaced components
+        next.collectionHolders = Maps.newConcurrentMap();
+        next.registry = ComponentRegistry.of(current.registry.getComponentClasses().stream()
+                .map(c -> replacements.getOrDefault(c, c))
+                .collect(Collectors.toList()));
+        // Replacements keep names, so they keep ids of previous versions
+        next.componentStatuses = current.componentStatuses.clone();
+        next.graph = DependencyGraph.of(
+                next.registry.getComponentClasses(),
+                next.beanDefinitions,
+                d -> resolveLocalClasses(next, d)
         );
-        Constructor<?> constructor = constructors.stream()
-                .findFirst()
-                .get();
-        List<Object> parametersInstances = getConstructorParametersInstances(constructor);
-        Object instance = constructor.newInstance(parametersInstances.toArray());
-        componentsStatusMap.put(clazz, ComponentStatus.CREATED);
-
-        invokePostConstructor(instance);
-        return instance;
+
+        Set<Class<?>> reloadedClasses = ImmutableSet.copyOf(replacements.values());
+        List<Class<?>> reloaded = next.graph.getTopologicalOrder().stream()
+                .filter(reloadedClasses::contains)
+                .collect(Collectors.toList());
+        Map<Class<?>, BeanFactory> factories = Maps.newHashMap();
+        for (Class<?> c : reloaded) {
+            BeanFactory factory = new BeanFactory(next.beanDefinitions.get(c));
+            factories.put(c, factory);
+            next.componentStatuses[next.registry.getId(c)] = NOT_CREATED;
+            next.applicationScope.put(c, createHolder(next, factory));
+        }
+        factories.values().forEach(f -> {
+            f.resolve(d -> resolveHolder(next, d));
+            cacheManager.resolve(f.getDefinition().getInterceptedMethods(CacheManager.class));
+        });
+        for (Class<?> c : reloaded) {
+            if (next.beanDefinitions.get(c).isEager())
+                createSingleton(next, c, factories.get(c));
+        }
+        return reloaded;
     }
 
-    @SneakyThrows
-    private Object createInstanceAutowired(Class<?> clazz) {
-        Set<Constructor<?>> autowiredConstructors = getAutowiredConstructors(clazz);
-        Preconditions.checkState(
-                autowiredConstructors.size() == 1,
-                "Too many autowired constructors: " + clazz.getName());
-        Constructor<?> constructor = autowiredConstructors.stream()
-                .findFirst()
-                .get();
-        List<Object> parametersInstances = getConstructorParametersInstances(constructor);
-        Object instance = constructor.newInstance(parametersInstances.toArray());
-        componentsStatusMap.put(clazz, ComponentStatus.CREATED);
-
-        invokePostConstructor(instance);
-        return instance;
+    /**
+     * Handles changes reported by {@link ClassWatcher}, result is published as {@link ComponentsReloaded} event
+     */
+    private void reloadChanged(Set<String> classNames) {
+        List<Class<?>> reloaded = ImmutableList.of();
+        Throwable failure = null;
+        try {
+            reloaded = reload(classNames);
+        } catch (RuntimeException | Error e) {
+            failure = e;
+        }
+        if (reloaded.isEmpty() && failure == null || closed.get()) return;
+        try {
+            eventBus.publish(new ComponentsReloaded(classNames, reloaded, failure));
+        } catch (RuntimeException e) {
+            // Failed listener does not stop watching
+        }
     }
 
-    private List<Object> getConstructorParametersInstances(Constructor<?> constructor) {
-        Parameter[] parameters = constructor.getParameters();
-        List<Object> parameterInstances = Lists.newArrayList();
+    /**
+     * Destroys components, waits not longer than shutdown timeout of builder
+     * @see #close(Duration)
+     */
+    @Override
+    public void close() {
+        close(shutdownTimeout);
+    }
 
-        for (Parameter p : parameters) {
-            Class<?> pType = p.getType();
-            String qualifier = getQualifierValue(p);
+    /**
+     * Destroys created singleton components: invokes PreDestroy method
+     * or {@link AutoCloseable#close()} if there is no PreDestroy method.
+     * Component is destroyed after all components depending on it are destroyed,
+     * independent components are destroyed in parallel on executor of the Injector
+     * (or on temporary threads if components were created in calling thread).
+     * Pending batched and asynchronous events are delivered before destruction.
+     * Components are not requested after close, child Injectors should be closed before parent.
+     * Does nothing if Injector is already closed
+     * @param timeout overall deadline of event deliveries and destructions,
+     * components not destroyed in time are reported in exception
+     * @throws IllegalStateException if some component is not destroyed in time or its destruction failed,
+     * destruction failures are added as suppressed exceptions
+     */
+    public void close(Duration timeout) {
+        if (!closed.compareAndSet(false, true) || this.state == null) return;
+        // Event delivery and destruction share one deadline
+        long deadline = System.nanoTime() + timeout.toNanos();
+        if (classWatcher != null)
+            classWatcher.close();
+        State state;
+        // Waits for hot reload started by reload() in another thread, later reloads see that Injector is closed
+        synchronized (reloadLock) {
+            state = this.state;
+        }
+        removeShutdownHook();
+        // Listeners finish handling of published events before components are destroyed
+        eventBus.close(Duration.ofNanos(deadline - System.nanoTime()));
 
-            Object beanInstance = getBeanInstance(pType, qualifier);
-            if (beanInstance == null) {
-                Class<?> implClass = getImplementationClass(pType, injectionMap, qualifier);
-                beanInstance = createInstance(implClass);
-                applicationScope.put(implClass, beanInstance);
+        ExecutorService temporaryExecutor = executor == MoreExecutors.directExecutor()
+                ? Executors.newCachedThreadPool(new ThreadFactoryBuilder().setNameFormat("ioc-destroy-%d").setDaemon(true).build())
+                : null;
+        Executor destroyExecutor = temporaryExecutor != null ? temporaryExecutor : executor;
+        List<Throwable> failures = Collections.synchronizedList(Lists.newArrayList());
+        // Key: Component class
+        // Value: Completed when component and all its dependants are destroyed
+        Map<Class<?>, CompletableFuture<Void>> destructions = Maps.newLinkedHashMap();
+        try {
+            List<Class<?>> order = state.graph.getTopologicalOrder();
+            for (Class<?> c : Lists.reverse(order)) {
+                CompletableFuture<Void> dependantsDestruction = CompletableFuture.allOf(
+                        Arrays.stream(state.graph.getDependants(c)).map(destructions::get).toArray(CompletableFuture<?>[]::new)
+                );
+                Object instance = state.applicationScope.get(c).getCreated();
+                BeanDefinition definition = state.beanDefinitions.get(c);
+                destructions.put(c, instance != null && definition.hasPreDestroy()
+                        ? dependantsDestruction.thenRunAsync(() -> destroy(definition, instance, failures), destroyExecutor)
+                        : dependantsDestruction);
             }
-            parameterInstances.add(beanInstance);
+            awaitDestruction(destructions, timeout, deadline);
+        } finally {
+            if (temporaryExecutor != null)
+                temporaryExecutor.shutdown();
+        }
+        if (!failures.isEmpty()) {
+            IllegalStateException exception = new IllegalStateException("Failed to destroy components");
+            failures.forEach(exception::addSuppressed);
+            throw exception;
         }
-        return parameterInstances;
     }
 
-    @SneakyThrows
-    private void invokePostConstructor(Object instance) {
-        Set<Method> postConstructorMethods = getPostConstructorMethods(instance.getClass());
-        Preconditions.checkState(
-                postConstructorMethods.size() <= 1,
-                "Too many PostConstructor methods: " + instance.getClass().getName()
-        );
-        Optional<Method> method = postConstructorMethods.stream()
-                .findFirst();
-        if (method.isEmpty()) return;
+    private static void destroy(BeanDefinition definition, Object instance, List<Throwable> failures) {
+        try {
+            definition.invokePreDestroy(instance);
+        } catch (Throwable e) {
+            // Dependencies of failed component are destroyed anyway
+            failures.add(e);
+        }
+    }
 
-        Preconditions.checkState(
-                method.get().getParameterCount() == 0,
-                "Invalid PostConstructor parameters count: " + method.get()
-        );
-        method.get().invoke(instance);
+    /**
+     * @param timeout timeout of close, reported in exception
+     * @param deadline {@link System#nanoTime()} when close should finish
+     */
+    private static void awaitDestruction(
+            Map<Class<?>, CompletableFuture<Void>> destructions,
+            Duration timeout,
+            long deadline
+    ) {
+        try {
+            CompletableFuture.allOf(destructions.values().toArray(CompletableFuture<?>[]::new))
+                    .get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            List<String> pending = destructions.entrySet().stream()
+                    .filter(d -> !d.getValue().isDone())
+                    .map(d -> d.getKey().getName())
+                    .collect(Collectors.toList());
+            throw new IllegalStateException("Components are not destroyed in " + timeout + ": " + pending, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while destroying components", e);
+        } catch (ExecutionException e) {
+            // Destruction failures are collected, not propagated
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private void removeShutdownHook() {
+        if (shutdownHook == null || Thread.currentThread() == shutdownHook) return;
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException e) {
+            // JVM is already shutting down, hook is running or has run
+        }
+    }
+
+    private static void saveStartupPlan(State state, StartupCache cache, ConditionEvaluator conditions) {
+        try {
+            cache.save(new StartupCache.Plan(
+                    state.registry,
+                    state.beanDefinitions,
+                    state.graph.getTopologicalOrder(),
+                    conditions.getInputs()
+            ));
+        } catch (IOException e) {
+            // Cache is optional, application is already started
+        }
+    }
+
+    /**
+     * Finds component classes matching their conditions and resolves their instantiation plans
+     * @param state receives registry and instantiation plans
+     */
+    private void discoverComponents(
+            State state,
+            Class<?> mainClass,
+            ConditionEvaluator conditions,
+            StartupRecorder recorder
+    ) throws IOException {
+        String packageName = mainClass.getPackageName();
+        List<GeneratedWiring> wirings = findGeneratedWirings();
+        // Key: Component class matching conditions except missing bean condition
+        // Value: Conditions of the component
+        Map<Class<?>, ComponentConditions> candidates = Maps.newHashMap();
+        // Key: Component class
+        // Value: Plan generated at compile time
+        Map<Class<?>, GeneratedComponent> generatedComponents = Maps.newHashMap();
+        for (GeneratedWiring wiring : wirings) {
+            for (GeneratedComponent generated : wiring.getComponents()) {
+                if (generated.getType().getName().startsWith(packageName))
+                    generatedComponents.put(generated.getType(), generated);
+            }
+        }
+        List<String> conditionalEntries = wirings.stream()
+                .flatMap(w -> w.getConditionalComponents().stream())
+                .filter(e -> e.startsWith(packageName))
+                .collect(Collectors.toList());
+        if (!generatedComponents.isEmpty() || !conditionalEntries.isEmpty()) {
+            // Wiring generated at compile time, neither class path nor annotations are read
+            generatedComponents.keySet().forEach(c -> candidates.put(c, ComponentConditions.NONE));
+            addMatchingEntries(conditionalEntries, conditions, candidates);
+            recorder.phaseFinished(StartupPhase.CLASSPATH_SCAN);
+        } else {
+            Optional<List<String>> indexEntries = getIndexEntriesInPackage(packageName);
+            if (indexEntries.isPresent()) {
+                addMatchingEntries(indexEntries.get(), conditions, candidates);
+                recorder.phaseFinished(StartupPhase.CLASSPATH_SCAN);
+            } else {
+                Set<Class<?>> packageClasses = getClassesInPackage(packageName);
+                recorder.phaseFinished(StartupPhase.CLASSPATH_SCAN);
+                for (Class<?> c : getClassesAnnotatedWith(Component.class, packageClasses)) {
+                    ComponentConditions componentConditions = ComponentConditions.of(c);
+                    if (conditions.matches(componentConditions))
+                        candidates.put(c, componentConditions);
+                }
+            }
+        }
+        Set<Class<?>> componentClasses = conditions.filterMissingBeans(candidates);
+        state.beanDefinitions = Maps.newHashMap();
+        for (Class<?> c : componentClasses) {
+            GeneratedComponent generated = generatedComponents.get(c);
+            state.beanDefinitions.put(c, generated != null ? BeanDefinition.of(generated) : BeanDefinition.of(c));
+        }
+        recorder.phaseFinished(StartupPhase.ANNOTATION_FILTERING);
+        state.registry = ComponentRegistry.of(componentClasses);
+    }
+
+    /**
+     * Component classes are loaded only if their conditions match
+     * @param entries component index entries
+     */
+    private static void addMatchingEntries(
+            List<String> entries,
+            ConditionEvaluator conditions,
+            Map<Class<?>, ComponentConditions> candidates
+    ) {
+        for (String entry : entries) {
+            ComponentConditions componentConditions = ComponentConditions.parse(entry);
+            if (conditions.matches(componentConditions))
+                candidates.put(loadIndexedClass(ComponentConditions.getComponentName(entry)), componentConditions);
+        }
+    }
+
+    private static void awaitCreation(Collection<CompletableFuture<?>> creations) {
+        try {
+            CompletableFuture.allOf(creations.toArray(CompletableFuture<?>[]::new)).join();
+        } catch (CompletionException e) {
+            Throwables.throwIfUnchecked(e.getCause());
+            throw e;
+        }
+    }
+
+    /**
+     * Reads wiring generated by {@link com.ivchenko.ioc.processor.WiringProcessor}
+     * @return generated wirings of all compilation units, empty list if there is no generated wiring
+     */
+    private static List<GeneratedWiring> findGeneratedWirings() {
+        List<GeneratedWiring> wirings = Lists.newArrayList();
+        ServiceLoader.load(GeneratedWiring.class, Thread.currentThread().getContextClassLoader()).forEach(wirings::add);
+        return wirings;
+    }
+
+    /**
+     * Used during startup and hot reload to build dependency graph
+     * @return implementation classes of dependency in this Injector, all implementations for collections
+     */
+    private List<Class<?>> resolveLocalClasses(State state, Dependency dependency) {
+        if (dependency.getKind() == Dependency.Kind.VALUE)
+            return ImmutableList.of();
+        if (dependency.getKind().isCollection())
+            return state.registry.getImplementationClasses(dependency.getType());
+        if (isContainerComponent(state, dependency))
+            return ImmutableList.of();
+        Class<?> implClass = resolveLocal(state, dependency);
+        return implClass != null ? ImmutableList.of(implClass) : ImmutableList.of();
+    }
+
+    /**
+     * Used during startup and hot reload, dependencies are resolved in this Injector first, then in parents
+     * @return implementation class of dependency or null if it is provided by parent Injector
+     */
+    private Class<?> resolveLocal(State state, Dependency dependency) {
+        Class<?> implClass = state.registry.findImplementationClass(dependency.getType(), dependency.getQualifier());
+        if (implClass != null) return implClass;
+        if (parent != null && parent.findHolder(dependency.getType(), dependency.getQualifier()) != null) return null;
+        // Throws exception with the reason
+        return state.registry.getImplementationClass(dependency.getType(), dependency.getQualifier());
+    }
+
+    /**
+     * Used during startup and hot reload, dependencies are resolved in this Injector first, then in parents
+     * @param state state which is wired, holders of other states are not used
+     * @return holder of the dependency
+     */
+    private BeanHolder resolveHolder(State state, Dependency dependency) {
+        if (dependency.getKind() == Dependency.Kind.VALUE)
+            return new BeanHolder.Constant(properties.get(dependency.getProperty(), dependency.getType()));
+        if (dependency.getKind().isCollection())
+            return findCollectionHolder(state, dependency);
+        if (isContainerComponent(state, dependency))
+            return containerComponents.get(dependency.getType());
+        Class<?> implClass = resolveLocal(state, dependency);
+        return implClass != null
+                ? state.applicationScope.get(implClass)
+                : parent.findHolder(dependency.getType(), dependency.getQualifier());
+    }
+
+    /**
+     * Components of the container are injected by exact type, unless application declares its own implementation
+     */
+    private boolean isContainerComponent(State state, Dependency dependency) {
+        return containerComponents.containsKey(dependency.getType())
+                && state.registry.findImplementationClass(dependency.getType(), dependency.getQualifier()) == null;
     }
 
-    private void checkCreationPreconditions(Class<?> clazz) {
+    /**
+     * Collections of implementations are shared by all injection points of the same type.
+     * If this Injector has no implementations, collection of parent Injector is used
+     * @return holder of collection, collection is created on first request
+     */
+    private BeanHolder findCollectionHolder(State state, Dependency dependency) {
+        if (parent != null && !state.registry.hasImplementation(dependency.getType()))
+            return parent.findCollectionHolder(parent.state, dependency);
+        return state.collectionHolders.computeIfAbsent(dependency, d -> {
+            // Holders of the state are resolved now, the state itself is not held after hot reload
+            List<Class<?>> implClasses = state.registry.getImplementationClasses(d.getType());
+            BeanHolder[] holders = implClasses.stream().map(state.applicationScope::get).toArray(BeanHolder[]::new);
+            return new BeanHolder.LazySingleton(() -> createCollection(d, implClasses, holders));
+        });
+    }
+
+    /**
+     * @param holders holders of implementation classes
+     * @return immutable list, array or immutable map of all implementations ordered by {@link Order}
+     */
+    private static Object createCollection(Dependency dependency, List<Class<?>> implClasses, BeanHolder[] holders) {
+        Class<?> type = dependency.getType();
+        Object[] elements = (Object[]) Array.newInstance(type, implClasses.size());
+        for (int i = 0; i < elements.length; i++) {
+            BeanHolder holder = holders[i];
+            elements[i] = holder.requiresProxy() && type.isInterface()
+                    ? BeanHolder.proxy(type, holder)
+                    : holder.get();
+        }
+        switch (dependency.getKind()) {
+            case LIST:
+                return ImmutableList.copyOf(elements);
+            case ARRAY:
+                return elements;
+            case MAP:
+                Map<String, Object> map = Maps.newLinkedHashMap();
+                for (int i = 0; i < elements.length; i++) {
+                    Object previous = map.put(implClasses.get(i).getSimpleName(), elements[i]);
+                    Preconditions.checkState(previous == null, "Duplicate qualifier: %s", implClasses.get(i));
+                }
+                return ImmutableMap.copyOf(map);
+            default:
+                throw new IllegalStateException("Not a collection: " + dependency);
+        }
+    }
+
+    /**
+     * @param state state the holder belongs to, lazy component is created with statuses of this state
+     */
+    private BeanHolder createHolder(State state, BeanFactory factory) {
+        BeanDefinition definition = factory.getDefinition();
+        Class<?> clazz = definition.getType();
+        switch (definition.getScope()) {
+            case Scope.SINGLETON:
+                if (definition.isLazy()) {
+                    // Only statuses are held, so state replaced by hot reload is not retained by kept components
+                    byte[] statuses = state.componentStatuses;
+                    int id = state.registry.getId(clazz);
+                    return new BeanHolder.LazySingleton(() -> createInstance(statuses, id, factory));
+                }
+                return new BeanHolder.Singleton(clazz);
+            case Scope.PROTOTYPE:
+                return new BeanHolder.Prototype(factory);
+            case Scope.THREAD:
+                return new BeanHolder.PerThread(factory);
+            default:
+                Scope scope = customScopes.get(definition.getScope());
+                Preconditions.checkState(scope != null, "Unknown scope '%s': %s", definition.getScope(), clazz);
+                return new BeanHolder.Scoped(scope, clazz, factory);
+        }
+    }
+
+    private static void createSingleton(State state, Class<?> clazz, BeanFactory factory) {
+        Object instance = createInstance(state.componentStatuses, state.registry.getId(clazz), factory);
+        ((BeanHolder.Singleton) state.applicationScope.get(clazz)).set(instance);
+    }
+
+    /**
+     * @param statuses creation statuses of the state the component belongs to
+     * @param id id of the component in the state
+     */
+    private static Object createInstance(byte[] statuses, int id, BeanFactory factory) {
+        checkCreationPreconditions(statuses, id);
+        statuses[id] = CREATING;
+        Object instance = factory.get();
+        statuses[id] = CREATED;
+        return instance;
+    }
+
+    private static void checkCreationPreconditions(byte[] statuses, int id) {
         Preconditions.checkState(
-                componentsStatusMap.get(clazz) != ComponentStatus.CREATING,
+                statuses[id] != CREATING,
                 "Requested bean is already in creation: Maybe there an unresolvable circular reference"
         );
         Preconditions.checkState(
-                componentsStatusMap.get(clazz) != ComponentStatus.CREATED,
+                statuses[id] != CREATED,
                 "Requested bean has been already created"
         );
     }
 
-    private <T> T getBeanInstance(Class<T> interfaceClass) {
-        return getBeanInstance(interfaceClass, null);
-    }
-
-    private <T> T getBeanInstance(Class<T> interfaceClass, String qualifier) {
-        return InjectionUtils.getBeanInstance(interfaceClass, injectionMap, applicationScope, qualifier);
-    }
-
-    private static Injector getInstance() {
-        return InjectorHolder.INSTANCE;
+    /**
+     * Components of the Injector: registry, instantiation plans, holders, creation statuses and dependency graph.
+     * Built at startup and by every hot reload, then published with one write of {@link #state}.
+     * Holders and factories are wired with the state they belong to, so requests never read unpublished state.
+     * Fields are assigned only before publication
+     */
+    private static final class State {
+        private ComponentRegistry registry;
+        // Key: Component class
+        // Value: Instantiation plan
+        private Map<Class<?>, BeanDefinition> beanDefinitions;
+        // Key: Component class
+        // Value: Holder of the component instance
+        private Map<Class<?>, BeanHolder> applicationScope;
+        // Key: Collection dependency
+        // Value: Holder of the collection shared by all injection points
+        private Map<Dependency, BeanHolder> collectionHolders;
+        // Index is component id in registry, values are NOT_CREATED, CREATING or CREATED.
+        // Hot reload copies the array, so statuses of published state are not modified by failed reload
+        private byte[] componentStatuses;
+        // Creation order of local components, destruction runs in reverse
+        private DependencyGraph graph;
+        // Holders indexed by component ids, used by requests
+        private BeanSnapshot snapshot;
     }
 
     /**
-     * Holds Injector instance (Singleton implementation)
+     * Builder of isolated Injector
      */
-    private static class InjectorHolder {
-        private static final Injector INSTANCE = new Injector();
-    }
+    public static final class Builder {
+        private final Class<?> mainClass;
+        private final Map<String, Scope> customScopes = Maps.newHashMap();
+        private final List<Path> propertyFiles = Lists.newArrayList();
+        private final Map<String, String> properties = Maps.newHashMap();
+        private final Set<String> profiles = Sets.newHashSet();
+        private final List<Path> reloadDirectories = Lists.newArrayList();
+        private Executor executor = MoreExecutors.directExecutor();
+        private Executor eventExecutor;
+        private Injector parent;
+        private Path cacheDirectory;
+        private Duration shutdownTimeout = Duration.ofSeconds(30);
+        private boolean shutdownHook;
+        private boolean compact;
 
-    private enum ComponentStatus {
-        NOT_CREATED, CREATING, CREATED
+        private Builder(Class<?> mainClass) {
+            this.mainClass = mainClass;
+            ServiceLoader.load(Scope.class, Thread.currentThread().getContextClassLoader())
+                    .forEach(this::scope);
+        }
+
+        /**
+         * Independent components are created in parallel on specified executor,
+         * each component waits only for its own dependencies.
+         * By default, components are created one by one in calling thread
+         * @param executor executor for components creation, e.g. {@link java.util.concurrent.ForkJoinPool}
+         */
+        public Builder executor(Executor executor) {
+            this.executor = Preconditions.checkNotNull(executor);
+            return this;
+        }
+
+        /**
+         * Asynchronous and batched {@link com.ivchenko.ioc.annotation.EventListener} methods are invoked
+         * on specified executor. By default, virtual threads are used on Java 21+, daemon threads otherwise
+         * @param executor executor of event deliveries, it is not shut down by Injector
+         */
+        public Builder eventExecutor(Executor executor) {
+            this.eventExecutor = Preconditions.checkNotNull(executor);
+            return this;
+        }
+
+        /**
+         * Components which are not found in package of main class are resolved from parent.
+         * Parent components are shared, not copied
+         * @param parent started Injector
+         */
+        public Builder parent(Injector parent) {
+            Preconditions.checkArgument(parent.state != null, "Parent Injector is not started");
+            this.parent = parent;
+            return this;
+        }
+
+        /**
+         * Registers custom scope in addition to scopes registered through {@link ServiceLoader}
+         * @param scope custom scope
+         */
+        public Builder scope(Scope scope) {
+            customScopes.put(scope.getName(), scope);
+            return this;
+        }
+
+        /**
+         * Enables persistent cache of startup plan: found components, type and qualifier mappings,
+         * chosen constructors and creation order. On next start with unchanged class path
+         * class path is not scanned and components are not inspected.
+         * Cache is written after successful start and is rewritten if class path has been changed
+         * @param directory directory of cache files
+         */
+        public Builder startupCache(Path directory) {
+            this.cacheDirectory = Preconditions.checkNotNull(directory);
+            return this;
+        }
+
+        /**
+         * Adds property file, properties of later files override properties of earlier ones
+         * and of class path {@code application.properties}
+         * @param file file in {@link java.util.Properties} format
+         */
+        public Builder propertyFile(Path file) {
+            propertyFiles.add(Preconditions.checkNotNull(file));
+            return this;
+        }
+
+        /**
+         * Sets property, overrides properties of files.
+         * System properties and environment variables override properties set here
+         * @param key property key
+         * @param value property value
+         */
+        public Builder property(String key, String value) {
+            properties.put(Preconditions.checkNotNull(key), Preconditions.checkNotNull(value));
+            return this;
+        }
+
+        /**
+         * Activates profiles in addition to profiles of {@code ioc.profiles.active} property.
+         * Components annotated with {@link com.ivchenko.ioc.annotation.Profile} are registered only if their profile is active
+         * @param profiles profile names
+         */
+        public Builder profiles(String... profiles) {
+            this.profiles.addAll(Arrays.asList(profiles));
+            return this;
+        }
+
+        /**
+         * Sets deadline of {@link Injector#close()}, 30 seconds by default
+         * @param timeout maximum duration of destruction of all components
+         */
+        public Builder shutdownTimeout(Duration timeout) {
+            Preconditions.checkArgument(!timeout.isNegative(), "Negative shutdown timeout: %s", timeout);
+            this.shutdownTimeout = timeout;
+            return this;
+        }
+
+        /**
+         * Registers JVM shutdown hook, which closes Injector when JVM exits.
+         * Hook is removed if Injector is closed explicitly
+         */
+        public Builder shutdownHook() {
+            this.shutdownHook = true;
+            return this;
+        }
+
+        /**
+         * Enables hot reload: watches class output directories of the application, e.g. {@code target/classes},
+         * and recreates changed components and components depending on them ({@link Injector#reload(Collection)}).
+         * Intended for development, result of every reload is published as {@link ComponentsReloaded} event
+         * @param classDirectories class output directories, subdirectories are watched as well
+         */
+        public Builder hotReload(Path... classDirectories) {
+            for (Path directory : classDirectories) {
+                Preconditions.checkArgument(Files.isDirectory(directory), "Not a directory: %s", directory);
+                reloadDirectories.add(directory);
+            }
+            return this;
+        }
+
+        /**
+         * Enables compact mode for large applications: after startup, state of components is held in arrays
+         * indexed by component ids instead of hash maps keyed by component classes.
+         * Lookups cost the same, memory overhead of container per component is lower
+         */
+        public Builder compact() {
+            this.compact = true;
+            return this;
+        }
+
+        /**
+         * Creates Injector, creates all components and starts application
+         * @return started Injector
+         */
+        public Injector start() {
+            Injector injector = new Injector(this);
+            injector.initialize(mainClass);
+            return injector;
+        }
     }
 }
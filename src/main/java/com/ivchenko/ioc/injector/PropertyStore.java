@@ -0,0 +1,277 @@
+package com.ivchenko.ioc.injector;
+
+import com.google.common.base.Ascii;
+import com.google.common.base.CharMatcher;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import com.google.common.primitives.Primitives;
+import lombok.SneakyThrows;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+
+/**
+ * Configuration properties of Injector, read once at startup.
+ * Property is searched in system properties, then in environment variables
+ * ({@code pool.size} is read from {@code POOL_SIZE}), then in properties set through
+ * {@link Injector.Builder#property(String, String)}, then in property files
+ * and finally in {@code application.properties} from class path.
+ * Every property is converted to requested type once, converted values are reused
+ */
+public final class PropertyStore {
+    /**
+     * Class path location of default property file
+     */
+    public static final String DEFAULT_LOCATION = "application.properties";
+
+    // Key: Property key
+    // Value: Property value, in order of precedence
+    private final List<Map<String, String>> sources;
+    // Key: Property expression and requested type
+    // Value: Converted value
+    private final Map<Conversion, Object> converted = Maps.newConcurrentMap();
+    // Key: Property expression
+    // Value: Converted int property, shared by int and Integer requests
+    private final Map<String, Integer> ints = Maps.newConcurrentMap();
+    // Key: Property expression
+    // Value: Converted long property, shared by long and Long requests
+    private final Map<String, Long> longs = Maps.newConcurrentMap();
+
+    private PropertyStore(List<Map<String, String>> sources) {
+        this.sources = sources;
+    }
+
+    /**
+     * Reads all property sources
+     * @param files property files, later files override earlier ones
+     * @param properties properties set explicitly
+     * @param parent properties of parent Injector used instead of class path {@code application.properties}, may be null
+     * @return property store
+     */
+    @SneakyThrows
+    static PropertyStore load(List<Path> files, Map<String, String> properties, PropertyStore parent) {
+        Map<String, String> fileProperties = Maps.newHashMap();
+        if (parent != null) {
+            fileProperties.putAll(parent.sources.get(2));
+            fileProperties.putAll(parent.sources.get(3));
+        } else {
+            URL defaultFile = Thread.currentThread().getContextClassLoader().getResource(DEFAULT_LOCATION);
+            if (defaultFile != null) {
+                try (InputStream in = defaultFile.openStream()) {
+                    read(new InputStreamReader(in, StandardCharsets.UTF_8), fileProperties);
+                }
+            }
+        }
+        for (Path file : files) {
+            try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                read(reader, fileProperties);
+            }
+        }
+        Map<String, String> systemProperties = Maps.newHashMap();
+        System.getProperties().stringPropertyNames().forEach(k -> systemProperties.put(k, System.getProperty(k)));
+        return new PropertyStore(ImmutableList.of(
+                ImmutableMap.copyOf(systemProperties),
+                ImmutableMap.copyOf(System.getenv()),
+                ImmutableMap.copyOf(properties),
+                ImmutableMap.copyOf(fileProperties)
+        ));
+    }
+
+    private static void read(Reader reader, Map<String, String> target) throws IOException {
+        Properties properties = new Properties();
+        properties.load(reader);
+        properties.stringPropertyNames().forEach(k -> target.put(k, properties.getProperty(k)));
+    }
+
+    /**
+     * @param key property key
+     * @return property value or empty Optional if property is not set
+     */
+    public Optional<String> get(String key) {
+        String value = sources.get(0).get(key);
+        if (value == null) value = sources.get(1).get(toEnvironmentName(key));
+        if (value == null) value = sources.get(2).get(key);
+        if (value == null) value = sources.get(3).get(key);
+        return Optional.ofNullable(value);
+    }
+
+    /**
+     * Returns property converted to specified type. Supported types are primitives and their wrappers,
+     * {@link String}, enums, {@link Duration} ({@code PT30S}, {@code 500ms}, {@code 30s}, {@code 5m}, {@code 1h}, {@code 1d}),
+     * {@link Path} and {@code String[]} (comma separated)
+     * @param expression property key, optionally followed by default value: {@code "pool.size:8"}
+     * @param type requested type
+     * @return converted value, the same instance for the same expression and type
+     * @throws IllegalStateException if property is not set and has no default value or can not be converted
+     */
+    public <T> T get(String expression, Class<T> type) {
+        Object value;
+        if (type == int.class || type == Integer.class)
+            value = getConverted(ints, expression, int.class);
+        else if (type == long.class || type == Long.class)
+            value = getConverted(longs, expression, long.class);
+        else
+            value = converted.computeIfAbsent(new Conversion(expression, type), Conversion::convert);
+        @SuppressWarnings("unchecked")
+        T result = (T) value;
+        return result;
+    }
+
+    /**
+     * Property injected into a component is converted at startup, other properties on first request,
+     * later requests only read the converted value, nothing is allocated
+     * @param expression property key, optionally followed by default value: {@code "pool.size:8"}
+     * @return converted value
+     * @throws IllegalStateException if property is not set and has no default value or can not be converted
+     */
+    public int getInt(String expression) {
+        return getConverted(ints, expression, int.class);
+    }
+
+    /**
+     * Same as {@link #getInt(String)} for long property
+     */
+    public long getLong(String expression) {
+        return getConverted(longs, expression, long.class);
+    }
+
+    public boolean getBoolean(String expression) {
+        return get(expression, boolean.class);
+    }
+
+    public double getDouble(String expression) {
+        return get(expression, double.class);
+    }
+
+    private <V> V getConverted(Map<String, V> values, String expression, Class<?> type) {
+        V value = values.get(expression);
+        if (value == null) {
+            @SuppressWarnings("unchecked")
+            V result = (V) convert(expression, type);
+            // Concurrent first requests convert the same value, the first one is kept
+            V previous = values.putIfAbsent(expression, result);
+            value = previous != null ? previous : result;
+        }
+        return value;
+    }
+
+    private Object convert(String expression, Class<?> type) {
+        int separator = expression.indexOf(':');
+        String key = separator < 0 ? expression : expression.substring(0, separator);
+        Preconditions.checkState(!key.isEmpty(), "Property key is empty: '%s'", expression);
+        String value = get(key).orElse(separator < 0 ? null : expression.substring(separator + 1));
+        Preconditions.checkState(value != null, "Property is not set: %s", key);
+        try {
+            return convertValue(value.trim(), type);
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new IllegalStateException(
+                    String.format("Property %s=%s can not be converted to %s", key, value, type.getName()), e
+            );
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object convertValue(String value, Class<?> type) {
+        Class<?> wrapper = Primitives.wrap(type);
+        if (wrapper == String.class) return value;
+        if (wrapper == Integer.class) return Integer.valueOf(value);
+        if (wrapper == Long.class) return Long.valueOf(value);
+        if (wrapper == Boolean.class) return parseBoolean(value);
+        if (wrapper == Double.class) return Double.valueOf(value);
+        if (wrapper == Float.class) return Float.valueOf(value);
+        if (wrapper == Short.class) return Short.valueOf(value);
+        if (wrapper == Byte.class) return Byte.valueOf(value);
+        if (wrapper == Character.class) {
+            Preconditions.checkArgument(value.length() == 1, "Not a single character");
+            return value.charAt(0);
+        }
+        if (type.isEnum()) return Enum.valueOf((Class<? extends Enum>) type, value);
+        if (type == Duration.class) return parseDuration(value);
+        if (type == Path.class) return Paths.get(value);
+        if (type == String[].class)
+            return Splitter.on(',').trimResults().omitEmptyStrings().splitToList(value).toArray(new String[0]);
+        throw new IllegalArgumentException("Unsupported property type");
+    }
+
+    private static Boolean parseBoolean(String value) {
+        if (Ascii.equalsIgnoreCase(value, "true")) return Boolean.TRUE;
+        if (Ascii.equalsIgnoreCase(value, "false")) return Boolean.FALSE;
+        throw new IllegalArgumentException("Not a boolean");
+    }
+
+    /**
+     * @param value ISO-8601 duration ({@code PT30S}) or amount with unit: {@code 500ms}, {@code 30s}, {@code 5m}, {@code 1h}, {@code 1d}
+     * @return parsed duration
+     * @throws IllegalArgumentException or {@link DateTimeException} if value is not a duration
+     */
+    public static Duration parseDuration(String value) {
+        if (value.startsWith("P") || value.startsWith("p")) return Duration.parse(value);
+        int unitStart = CharMatcher.inRange('0', '9').negate().indexIn(value);
+        Preconditions.checkArgument(unitStart > 0, "Duration unit is not specified");
+        long amount = Long.parseLong(value.substring(0, unitStart));
+        switch (value.substring(unitStart)) {
+            case "ms":
+                return Duration.ofMillis(amount);
+            case "s":
+                return Duration.ofSeconds(amount);
+            case "m":
+                return Duration.ofMinutes(amount);
+            case "h":
+                return Duration.ofHours(amount);
+            case "d":
+                return Duration.ofDays(amount);
+            default:
+                throw new IllegalArgumentException("Unknown duration unit");
+        }
+    }
+
+    private static String toEnvironmentName(String key) {
+        return Ascii.toUpperCase(CharMatcher.anyOf(".-").replaceFrom(key, '_'));
+    }
+
+    /**
+     * Key of converted value
+     */
+    private final class Conversion {
+        private final String expression;
+        private final Class<?> type;
+
+        private Conversion(String expression, Class<?> type) {
+            this.expression = expression;
+            this.type = type;
+        }
+
+        private Object convert() {
+            return PropertyStore.this.convert(expression, type);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Conversion)) return false;
+            Conversion that = (Conversion) o;
+            return type == that.type && expression.equals(that.expression);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * expression.hashCode() + type.hashCode();
+        }
+    }
+}
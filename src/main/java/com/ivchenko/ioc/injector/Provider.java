@@ -0,0 +1,18 @@
+package com.ivchenko.ioc.injector;
+
+import java.util.function.Supplier;
+
+/**
+ * Injectable handle of a component, resolves instance on every call.
+ * Component can receive {@code Provider<T>} or {@code Supplier<T>} instead of {@code T}
+ * to get new instance of prototype component or current instance of scoped component later.
+ * Target is bound at wiring time, so {@link #get()} does not search components
+ * @param <T> requested type (interface, superclass or component class)
+ */
+public interface Provider<T> extends Supplier<T> {
+    /**
+     * @return instance of the component, new instance for prototype component
+     */
+    @Override
+    T get();
+}
@@ -0,0 +1,91 @@
+package com.ivchenko.ioc.injector;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Loads new versions of reloaded component classes and their nested classes from class output directories.
+ * Other component classes are loaded by class loaders of their current versions, so reloaded classes
+ * are linked with components which are kept, the rest of classes is loaded by parent.
+ * Every hot reload uses new loader, previous versions are collected when their instances are unreachable
+ */
+final class ReloadingClassLoader extends ClassLoader {
+    static {
+        registerAsParallelCapable();
+    }
+
+    private final List<Path> directories;
+    // Top level names of reloaded classes
+    private final Set<String> reloadedNames;
+    // Key: Name of component class
+    // Value: Current version of the class
+    private final Map<String, Class<?>> currentClasses;
+
+    ReloadingClassLoader(
+            List<Path> directories,
+            Collection<String> reloadedNames,
+            Map<String, Class<?>> currentClasses,
+            ClassLoader parent
+    ) {
+        super(parent);
+        this.directories = ImmutableList.copyOf(directories);
+        this.reloadedNames = ImmutableSet.copyOf(reloadedNames);
+        this.currentClasses = ImmutableMap.copyOf(currentClasses);
+    }
+
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+        String topLevelName = getTopLevelName(name);
+        if (!reloadedNames.contains(topLevelName)) {
+            Class<?> current = currentClasses.get(topLevelName);
+            // Class of previous hot reload
+            if (current != null && current.getClassLoader() instanceof ReloadingClassLoader)
+                return Class.forName(name, false, current.getClassLoader());
+            return super.loadClass(name, resolve);
+        }
+        synchronized (getClassLoadingLock(name)) {
+            Class<?> c = findLoadedClass(name);
+            if (c == null)
+                c = defineReloadedClass(name);
+            if (resolve)
+                resolveClass(c);
+            return c;
+        }
+    }
+
+    private Class<?> defineReloadedClass(String name) throws ClassNotFoundException {
+        String file = name.replace('.', '/') + ".class";
+        for (Path directory : directories) {
+            Path path = directory.resolve(file);
+            if (!Files.isRegularFile(path)) continue;
+            try {
+                byte[] bytes = Files.readAllBytes(path);
+                return defineClass(name, bytes, 0, bytes.length);
+            } catch (IOException e) {
+                throw new ClassNotFoundException(name, e);
+            }
+        }
+        throw new ClassNotFoundException("Class file is not found in hot reload directories: " + name);
+    }
+
+    /**
+     * Nested, local and generated classes ({@link com.ivchenko.ioc.injector.aop.Intercepted}) are reloaded
+     * together with their top level class
+     * @param binaryName binary name of class
+     * @return binary name of top level class
+     */
+    static String getTopLevelName(String binaryName) {
+        int simpleNameStart = binaryName.lastIndexOf('.') + 1;
+        int nested = binaryName.indexOf('$', simpleNameStart);
+        return nested < 0 ? binaryName : binaryName.substring(0, nested);
+    }
+}
@@ -0,0 +1,37 @@
+package com.ivchenko.ioc.injector;
+
+import java.util.function.Supplier;
+
+/**
+ * Storage of component instances, selected with {@link com.ivchenko.ioc.annotation.Component#scope()}.
+ * Custom scopes (e.g. request scope) are registered through {@link java.util.ServiceLoader}:
+ * implementation class should be listed in {@code META-INF/services/com.ivchenko.ioc.injector.Scope}
+ */
+public interface Scope {
+    /**
+     * One instance per Injector (default)
+     */
+    String SINGLETON = "singleton";
+    /**
+     * New instance on every request and for every injection
+     */
+    String PROTOTYPE = "prototype";
+    /**
+     * One instance per thread (platform or virtual)
+     */
+    String THREAD = "thread";
+
+    /**
+     * @return name of the scope, used in {@link com.ivchenko.ioc.annotation.Component#scope()}
+     */
+    String getName();
+
+    /**
+     * Returns instance of the component from current scope,
+     * if scope does not contain instance, it should be created with factory and stored
+     * @param componentClass component class
+     * @param factory creates new instance of the component with all dependencies injected
+     * @return instance of the component
+     */
+    Object get(Class<?> componentClass, Supplier<Object> factory);
+}
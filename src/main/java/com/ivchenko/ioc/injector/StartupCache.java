@@ -0,0 +1,415 @@
+package com.ivchenko.ioc.injector;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.ivchenko.ioc.injector.aop.MethodInterceptor;
+import com.ivchenko.ioc.injector.util.ReflectionUtils;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Persistent cache of resolved startup plan: component classes, type and qualifier mappings,
+ * chosen constructors and injection points with their dependencies and topological order.
+ * Plan is stored in compact binary file, which is memory-mapped on load.
+ * File contains fingerprint of class path (entries, their sizes and modification times),
+ * plan is used only if fingerprint matches, otherwise it is discarded and written again after startup.
+ * Inputs of component conditions are stored with the plan and compared by Injector
+ */
+final class StartupCache {
+    private static final int MAGIC = 0x494F4350; // "IOCP"
+    private static final int FORMAT_VERSION = 9;
+    private static final int NONE = -1;
+    private static final byte FIELD = 0;
+    private static final byte METHOD = 1;
+    private static final Map<String, Class<?>> PRIMITIVES = Stream.of(
+            boolean.class, byte.class, char.class, short.class, int.class, long.class, float.class, double.class
+    ).collect(ImmutableMap.toImmutableMap(Class::getName, c -> c));
+
+    private final Path file;
+    private final String packageName;
+    private final ClassLoader classLoader;
+    private final long fingerprint;
+
+    StartupCache(Path directory, Class<?> mainClass) throws IOException {
+        this.file = directory.resolve(mainClass.getName() + ".plan");
+        this.packageName = mainClass.getPackageName();
+        this.classLoader = Thread.currentThread().getContextClassLoader();
+        this.fingerprint = fingerprint(classLoader, packageName);
+    }
+
+    /**
+     * @return cached plan or null if there is no cache file or class path has been changed since it was written
+     */
+    Plan load() {
+        if (!Files.isRegularFile(file)) return null;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION || buffer.getLong() != fingerprint)
+                return null;
+            return read(buffer);
+        } catch (IOException | ReflectiveOperationException | BufferUnderflowException | IndexOutOfBoundsException
+                 | IllegalArgumentException | ClassCastException | LinkageError e) {
+            // Corrupted or stale cache, e.g. dependency of cached class is removed, plan is resolved again
+            return null;
+        }
+    }
+
+    /**
+     * Writes plan to cache file, plans with definitions generated at compile time are not cached
+     */
+    void save(Plan plan) throws IOException {
+        for (BeanDefinition definition : plan.definitions.values()) {
+            if (definition.getConstructor() == null) return;
+        }
+        Files.createDirectories(file.getParent());
+        Path temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeLong(fingerprint);
+                write(plan, out);
+            }
+            try {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /*
+     * Format: string table, then components and mappings referring to strings and components by index.
+     * Component: name, scope, lazy, PostConstructor name, WarmUp name, intercepted, has EventListener methods,
+     * parameters (parameter type, requested type, qualifier or property expression, kind),
+     * injection points (field or method, declaring class, name, field or parameter type).
+     * Type mapping: type name, component indexes. Qualifier mapping: qualifier, component indexes.
+     * Topological order: component indexes. Condition inputs: key, value (may be absent)
+     */
+    private static void write(Plan plan, DataOutputStream out) throws IOException {
+        List<String> strings = Lists.newArrayList();
+        Map<String, Integer> stringIds = Maps.newHashMap();
+        // Components are written by their ids in registry
+        List<Class<?>> components = plan.registry.getComponentClasses();
+
+        // Strings are collected while body is written, but are read first
+        ByteArrayOutputStream bodyBytes = new ByteArrayOutputStream();
+        DataOutputStream body = new DataOutputStream(bodyBytes);
+        body.writeInt(components.size());
+        for (Class<?> c : components) {
+            BeanDefinition definition = plan.definitions.get(c);
+            Method postConstructor = definition.getPostConstructorMethod();
+            body.writeInt(stringId(c.getName(), strings, stringIds));
+            body.writeInt(stringId(definition.getScope(), strings, stringIds));
+            body.writeBoolean(definition.isLazy());
+            body.writeInt(postConstructor == null ? NONE : stringId(postConstructor.getName(), strings, stringIds));
+            Method warmUp = definition.getWarmUpMethod();
+            body.writeInt(warmUp == null ? NONE : stringId(warmUp.getName(), strings, stringIds));
+            body.writeBoolean(definition.isIntercepted());
+            body.writeBoolean(!definition.getEventListenerMethods().isEmpty());
+            Class<?>[] parameterTypes = definition.getConstructor().getParameterTypes();
+            body.writeInt(parameterTypes.length);
+            for (int p = 0; p < parameterTypes.length; p++) {
+                Dependency d = definition.getDependencies()[p];
+                body.writeInt(stringId(parameterTypes[p].getName(), strings, stringIds));
+                body.writeInt(stringId(d.getType().getName(), strings, stringIds));
+                String qualifier = d.getKind() == Dependency.Kind.VALUE ? d.getProperty() : d.getQualifier();
+                body.writeInt(qualifier == null ? NONE : stringId(qualifier, strings, stringIds));
+                body.writeByte(d.getKind().ordinal());
+            }
+            body.writeInt(definition.getInjectionPoints().length);
+            for (InjectionPoint p : definition.getInjectionPoints()) {
+                Member member = p.getMember();
+                body.writeByte(member instanceof Field ? FIELD : METHOD);
+                body.writeInt(stringId(member.getDeclaringClass().getName(), strings, stringIds));
+                body.writeInt(stringId(member.getName(), strings, stringIds));
+                Class<?> type = member instanceof Field
+                        ? ((Field) member).getType()
+                        : ((Method) member).getParameterTypes()[0];
+                body.writeInt(stringId(type.getName(), strings, stringIds));
+            }
+        }
+        Map<Class<?>, int[]> byType = plan.registry.getCandidatesByType();
+        body.writeInt(byType.size());
+        for (Map.Entry<Class<?>, int[]> e : byType.entrySet()) {
+            body.writeInt(stringId(e.getKey().getName(), strings, stringIds));
+            writeComponents(e.getValue(), body);
+        }
+        Map<String, int[]> byQualifier = plan.registry.getCandidatesByQualifier();
+        body.writeInt(byQualifier.size());
+        for (Map.Entry<String, int[]> e : byQualifier.entrySet()) {
+            body.writeInt(stringId(e.getKey(), strings, stringIds));
+            writeComponents(e.getValue(), body);
+        }
+        writeComponents(plan.topologicalOrder.stream().mapToInt(plan.registry::getId).toArray(), body);
+        body.writeInt(plan.conditionInputs.size());
+        for (Map.Entry<String, String> e : plan.conditionInputs.entrySet()) {
+            body.writeInt(stringId(e.getKey(), strings, stringIds));
+            body.writeInt(e.getValue() == null ? NONE : stringId(e.getValue(), strings, stringIds));
+        }
+
+        out.writeInt(strings.size());
+        for (String s : strings) {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+        bodyBytes.writeTo(out);
+    }
+
+    private static int stringId(String s, List<String> strings, Map<String, Integer> stringIds) {
+        return stringIds.computeIfAbsent(s, k -> {
+            strings.add(k);
+            return strings.size() - 1;
+        });
+    }
+
+    private static void writeComponents(int[] ids, DataOutputStream out) throws IOException {
+        out.writeInt(ids.length);
+        for (int id : ids) {
+            out.writeInt(id);
+        }
+    }
+
+    private Plan read(MappedByteBuffer buffer) throws ReflectiveOperationException {
+        String[] strings = new String[buffer.getInt()];
+        for (int i = 0; i < strings.length; i++) {
+            byte[] bytes = new byte[buffer.getInt()];
+            buffer.get(bytes);
+            strings[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        // Loaded classes by string index
+        Class<?>[] classes = new Class<?>[strings.length];
+
+        Class<?>[] components = new Class<?>[buffer.getInt()];
+        Map<Class<?>, BeanDefinition> definitions = Maps.newHashMapWithExpectedSize(components.length);
+        for (int i = 0; i < components.length; i++) {
+            Class<?> component = loadClass(buffer.getInt(), strings, classes);
+            String scope = strings[buffer.getInt()];
+            boolean lazy = buffer.get() != 0;
+            int postConstructorName = buffer.getInt();
+            int warmUpName = buffer.getInt();
+            boolean intercepted = buffer.get() != 0;
+            boolean hasEventListeners = buffer.get() != 0;
+            Dependency[] dependencies = new Dependency[buffer.getInt()];
+            Class<?>[] parameterTypes = new Class<?>[dependencies.length];
+            for (int p = 0; p < dependencies.length; p++) {
+                parameterTypes[p] = loadClass(buffer.getInt(), strings, classes);
+                Class<?> type = loadClass(buffer.getInt(), strings, classes);
+                int qualifier = buffer.getInt();
+                Dependency.Kind kind = Dependency.Kind.values()[buffer.get()];
+                dependencies[p] = kind == Dependency.Kind.VALUE
+                        ? Dependency.ofProperty(type, strings[qualifier])
+                        : new Dependency(type, qualifier == NONE ? null : strings[qualifier], kind);
+            }
+            InjectionPoint[] injectionPoints = new InjectionPoint[buffer.getInt()];
+            for (int p = 0; p < injectionPoints.length; p++) {
+                byte kind = buffer.get();
+                Class<?> declaringClass = loadClass(buffer.getInt(), strings, classes);
+                String name = strings[buffer.getInt()];
+                Class<?> type = loadClass(buffer.getInt(), strings, classes);
+                injectionPoints[p] = InjectionPoint.of(kind == FIELD
+                        ? declaringClass.getDeclaredField(name)
+                        : declaringClass.getDeclaredMethod(name, type));
+            }
+            Constructor<?> constructor = component.getConstructor(parameterTypes);
+            Method postConstructor = postConstructorName == NONE
+                    ? null
+                    : component.getMethod(strings[postConstructorName]);
+            Method warmUp = warmUpName == NONE ? null : component.getMethod(strings[warmUpName]);
+            // Methods are scanned only for intercepted components
+            Map<Method, List<Class<? extends MethodInterceptor>>> interceptors = intercepted
+                    ? ReflectionUtils.getInterceptorBindings(component)
+                    : Map.of();
+            List<Method> eventListeners = hasEventListeners
+                    ? ReflectionUtils.getEventListenerMethods(component)
+                    : List.of();
+            components[i] = component;
+            definitions.put(component, BeanDefinition.of(
+                    component, constructor, dependencies, injectionPoints, postConstructor, warmUp,
+                    interceptors, eventListeners, scope, lazy
+            ));
+        }
+
+        int types = buffer.getInt();
+        Map<Class<?>, int[]> byType = Maps.newLinkedHashMapWithExpectedSize(types);
+        for (int i = 0; i < types; i++) {
+            Class<?> type = loadClass(buffer.getInt(), strings, classes);
+            byType.put(type, readIds(buffer));
+        }
+        int qualifiers = buffer.getInt();
+        Map<String, int[]> byQualifier = Maps.newLinkedHashMapWithExpectedSize(qualifiers);
+        for (int i = 0; i < qualifiers; i++) {
+            String qualifier = strings[buffer.getInt()];
+            byQualifier.put(qualifier, readIds(buffer));
+        }
+        int[] orderIds = readIds(buffer);
+        Class<?>[] topologicalOrder = new Class<?>[orderIds.length];
+        for (int i = 0; i < orderIds.length; i++) {
+            topologicalOrder[i] = components[orderIds[i]];
+        }
+        int inputs = buffer.getInt();
+        Map<String, String> conditionInputs = Maps.newTreeMap();
+        for (int i = 0; i < inputs; i++) {
+            String key = strings[buffer.getInt()];
+            int value = buffer.getInt();
+            conditionInputs.put(key, value == NONE ? null : strings[value]);
+        }
+
+        return new Plan(
+                ComponentRegistry.of(ImmutableList.copyOf(components), byType, byQualifier),
+                definitions,
+                ImmutableList.copyOf(topologicalOrder),
+                conditionInputs
+        );
+    }
+
+    private static int[] readIds(MappedByteBuffer buffer) {
+        int[] ids = new int[buffer.getInt()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = buffer.getInt();
+        }
+        return ids;
+    }
+
+    private Class<?> loadClass(int id, String[] strings, Class<?>[] classes) throws ClassNotFoundException {
+        if (classes[id] == null) {
+            Class<?> primitive = PRIMITIVES.get(strings[id]);
+            classes[id] = primitive != null ? primitive : Class.forName(strings[id], false, classLoader);
+        }
+        return classes[id];
+    }
+
+    /**
+     * Hash of class path entries which may contain components: path, size and modification time
+     * of every jar and of every file in the package of main class in every directory
+     */
+    private static long fingerprint(ClassLoader classLoader, String packageName) throws IOException {
+        Hasher hasher = Hashing.murmur3_128().newHasher()
+                .putInt(FORMAT_VERSION)
+                .putString(packageName, StandardCharsets.UTF_8);
+        String packagePath = packageName.replace('.', File.separatorChar);
+        for (Path entry : getClassPathEntries(classLoader)) {
+            hasher.putString(entry.toString(), StandardCharsets.UTF_8);
+            if (Files.isDirectory(entry)) {
+                Path packageDirectory = entry.resolve(packagePath);
+                if (!Files.isDirectory(packageDirectory)) continue;
+                // Attributes are read during walk, files are sorted so hash does not depend on walk order
+                Map<Path, BasicFileAttributes> files = Maps.newTreeMap();
+                Files.walkFileTree(packageDirectory, new SimpleFileVisitor<>() {
+                    @Override
+                    public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                        files.put(file, attributes);
+                        return FileVisitResult.CONTINUE;
+                    }
+                });
+                files.forEach((file, attributes) -> putFile(hasher, file, attributes));
+            } else if (Files.exists(entry)) {
+                putFile(hasher, entry, Files.readAttributes(entry, BasicFileAttributes.class));
+            }
+        }
+        return hasher.hash().asLong();
+    }
+
+    private static void putFile(Hasher hasher, Path file, BasicFileAttributes attributes) {
+        hasher.putString(file.toString(), StandardCharsets.UTF_8)
+                .putLong(attributes.size())
+                .putLong(attributes.lastModifiedTime().toMillis());
+    }
+
+    private static Set<Path> getClassPathEntries(ClassLoader classLoader) {
+        Set<Path> entries = Sets.newLinkedHashSet();
+        for (ClassLoader cl = classLoader; cl != null; cl = cl.getParent()) {
+            if (!(cl instanceof URLClassLoader)) continue;
+            for (URL url : ((URLClassLoader) cl).getURLs()) {
+                if (!"file".equals(url.getProtocol())) continue;
+                try {
+                    entries.add(Paths.get(url.toURI()));
+                } catch (URISyntaxException e) {
+                    entries.add(Paths.get(url.getPath()));
+                }
+            }
+        }
+        for (String entry : System.getProperty("java.class.path", "").split(File.pathSeparator)) {
+            if (!entry.isEmpty()) entries.add(Paths.get(entry).toAbsolutePath());
+        }
+        return entries;
+    }
+
+    /**
+     * Resolved startup plan
+     */
+    static final class Plan {
+        private final ComponentRegistry registry;
+        // Key: Component class
+        // Value: Instantiation plan
+        private final Map<Class<?>, BeanDefinition> definitions;
+        private final List<Class<?>> topologicalOrder;
+        // Key: Input of component conditions (property, class presence, active profiles)
+        // Value: Value of input when plan was resolved
+        private final Map<String, String> conditionInputs;
+
+        Plan(
+                ComponentRegistry registry,
+                Map<Class<?>, BeanDefinition> definitions,
+                List<Class<?>> topologicalOrder,
+                Map<String, String> conditionInputs
+        ) {
+            this.registry = registry;
+            this.definitions = definitions;
+            this.topologicalOrder = topologicalOrder;
+            this.conditionInputs = conditionInputs;
+        }
+
+        ComponentRegistry getRegistry() {
+            return registry;
+        }
+
+        Map<Class<?>, BeanDefinition> getDefinitions() {
+            return definitions;
+        }
+
+        List<Class<?>> getTopologicalOrder() {
+            return topologicalOrder;
+        }
+
+        Map<String, String> getConditionInputs() {
+            return conditionInputs;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.ivchenko.ioc.injector.aop;
+
+import java.lang.reflect.Method;
+import java.util.function.Function;
+
+/**
+ * Implemented by subclasses of intercepted components generated by
+ * {@link com.ivchenko.ioc.processor.InterceptionProcessor}.
+ * Only intercepted methods are overridden, other methods are called directly
+ */
+public interface Intercepted {
+    /**
+     * Suffix of binary name of generated subclass
+     */
+    String CLASS_NAME_SUFFIX = "$$Intercepted";
+
+    /**
+     * Called by Injector once after construction, methods called before it are not intercepted
+     * @param interceptors chain of interceptors of intercepted method, null if method should not be intercepted
+     */
+    void bindInterceptors(Function<Method, MethodInterceptor[]> interceptors);
+
+    /**
+     * Invokes overridden method of the component class
+     * @param method index of the method in generated subclass
+     * @param arguments arguments of the call
+     * @return result of the call, null for void methods
+     * @throws Throwable exception of the call
+     */
+    Object invokeTarget(int method, Object[] arguments) throws Throwable;
+
+    /**
+     * Used by generated subclasses to resolve intercepted methods once
+     * @return public method of the component class
+     */
+    static Method findMethod(Class<?> type, String name, Class<?>... parameterTypes) {
+        try {
+            return type.getMethod(name, parameterTypes);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("Intercepted method is not found: " + type.getName() + "." + name, e);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.ivchenko.ioc.injector.aop;
+
+import java.lang.reflect.Method;
+
+/**
+ * One call of intercepted method, passed through the chain of interceptors.
+ * Method itself is invoked with plain Java call of generated subclass, not reflectively
+ */
+public final class Invocation {
+    private final Intercepted target;
+    // Index of the method in generated subclass
+    private final int methodIndex;
+    private final Method method;
+    private final MethodInterceptor[] interceptors;
+    private final Object[] arguments;
+    // Index of the next interceptor
+    private int position;
+
+    /**
+     * Created by generated subclass on every call
+     */
+    public Invocation(
+            Intercepted target,
+            int methodIndex,
+            Method method,
+            MethodInterceptor[] interceptors,
+            Object[] arguments
+    ) {
+        this.target = target;
+        this.methodIndex = methodIndex;
+        this.method = method;
+        this.interceptors = interceptors;
+        this.arguments = arguments;
+    }
+
+    /**
+     * Invokes next interceptor or the method itself if all interceptors are passed.
+     * Can be called several times, e.g. to retry the call
+     * @return result of the call, null for void methods
+     * @throws Throwable exception of the call
+     */
+    public Object proceed() throws Throwable {
+        int current = position;
+        if (current == interceptors.length)
+            return target.invokeTarget(methodIndex, arguments);
+        position = current + 1;
+        try {
+            return interceptors[current].invoke(this);
+        } finally {
+            position = current;
+        }
+    }
+
+    /**
+     * @return intercepted component, calls of its intercepted methods are intercepted again
+     */
+    public Object getTarget() {
+        return target;
+    }
+
+    /**
+     * @return intercepted method of the component class
+     */
+    public Method getMethod() {
+        return method;
+    }
+
+    /**
+     * @return arguments of the call, can be replaced before {@link #proceed()}
+     */
+    public Object[] getArguments() {
+        return arguments;
+    }
+
+    @Override
+    public String toString() {
+        return "Invocation(" + method + ")";
+    }
+}
@@ -0,0 +1,16 @@
+package com.ivchenko.ioc.injector.aop;
+
+/**
+ * Interceptor of method calls of components, bound to methods by {@link com.ivchenko.ioc.annotation.InterceptorBinding}.
+ * Interceptor is a component itself, so it can depend on other components
+ */
+public interface MethodInterceptor {
+    /**
+     * Implementation calls {@link Invocation#proceed()} to invoke next interceptor or the method itself,
+     * it may skip the call, call it several times or replace its result
+     * @param invocation intercepted call
+     * @return result of the call, ignored for void methods
+     * @throws Throwable exception of the call or of the interceptor
+     */
+    Object invoke(Invocation invocation) throws Throwable;
+}
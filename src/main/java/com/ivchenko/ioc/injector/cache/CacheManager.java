@@ -0,0 +1,245 @@
+package com.ivchenko.ioc.injector.cache;
+
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import com.ivchenko.ioc.annotation.CacheEvict;
+import com.ivchenko.ioc.annotation.Cacheable;
+import com.ivchenko.ioc.injector.PropertyStore;
+import com.ivchenko.ioc.injector.aop.Invocation;
+import com.ivchenko.ioc.injector.aop.MethodInterceptor;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Interceptor of {@link Cacheable} and {@link CacheEvict} methods, provided by every Injector,
+ * so caches of different Injectors are isolated. Caches are bounded concurrent caches
+ * with least recently used eviction and optional expiration after write.
+ * Caching plans are resolved when the Injector wires interceptors of a component,
+ * so invalid declarations fail startup instead of the first call
+ */
+public final class CacheManager implements MethodInterceptor {
+    // Stored instead of null result and used as key of null argument, cache accepts neither null keys nor values
+    private static final Object NULL = new Object();
+    // Key of methods without parameters
+    private static final Object NO_ARGUMENTS = new Object();
+
+    // Key: Cache name
+    // Value: Cache shared by all methods with this name
+    private final Map<String, NamedCache> caches = Maps.newConcurrentMap();
+    // Key: Intercepted method
+    // Value: Caching plan of the method
+    private final Map<Method, MethodPlan> plans = Maps.newConcurrentMap();
+
+    /**
+     * Resolves caching plans and creates caches of intercepted methods, called by the Injector
+     * when interceptors of a component are wired
+     * @param methods methods intercepted by this CacheManager
+     * @throws IllegalStateException if cache of a method is declared incorrectly
+     */
+    public void resolve(Collection<Method> methods) {
+        for (Method method : methods) {
+            plans.computeIfAbsent(method, this::resolvePlan);
+        }
+    }
+
+    @Override
+    public Object invoke(Invocation invocation) throws Throwable {
+        MethodPlan plan = plans.get(invocation.getMethod());
+        // Methods of components wired by the Injector are resolved already
+        if (plan == null)
+            plan = plans.computeIfAbsent(invocation.getMethod(), this::resolvePlan);
+        return plan.cache != null ? invokeCached(plan, invocation) : invokeEvicting(plan, invocation);
+    }
+
+    private static Object invokeCached(MethodPlan plan, Invocation invocation) throws Throwable {
+        Object key = key(invocation.getArguments());
+        Object cached = plan.cache.getIfPresent(key);
+        if (cached != null) {
+            plan.hits.increment();
+            return cached == NULL ? null : cached;
+        }
+        plan.misses.increment();
+        // Concurrent misses of the same key may invoke the method several times, last result is kept
+        Object result = invocation.proceed();
+        plan.cache.put(key, result == null ? NULL : result);
+        return result;
+    }
+
+    private Object invokeEvicting(MethodPlan plan, Invocation invocation) throws Throwable {
+        Object result = invocation.proceed();
+        for (String name : plan.evicted) {
+            NamedCache named = caches.get(name);
+            // Cache is created only for names of Cacheable methods
+            if (named == null) continue;
+            if (plan.allEntries)
+                named.cache.invalidateAll();
+            else
+                named.cache.invalidate(key(invocation.getArguments()));
+        }
+        return result;
+    }
+
+    /**
+     * Single argument is the key itself, so no key object is allocated,
+     * argument of primitive type is boxed once when the call is intercepted
+     */
+    private static Object key(Object[] arguments) {
+        switch (arguments.length) {
+            case 0:
+                return NO_ARGUMENTS;
+            case 1:
+                return arguments[0] != null ? arguments[0] : NULL;
+            default:
+                // Interceptors later in the chain can replace arguments, so the key gets its own copy
+                return Arrays.asList(arguments.clone());
+        }
+    }
+
+    private MethodPlan resolvePlan(Method method) {
+        Cacheable cacheable = method.getAnnotation(Cacheable.class);
+        CacheEvict evict = method.getAnnotation(CacheEvict.class);
+        Preconditions.checkState(
+                cacheable == null || evict == null,
+                "Method can not be both Cacheable and CacheEvict: %s", method
+        );
+        if (cacheable != null) {
+            Preconditions.checkState(method.getReturnType() != void.class, "Cacheable method returns void: %s", method);
+            String name = cacheable.value().isEmpty() ? defaultName(method) : cacheable.value();
+            Duration expireAfterWrite = cacheable.expireAfterWrite().isEmpty()
+                    ? null
+                    : PropertyStore.parseDuration(cacheable.expireAfterWrite());
+            NamedCache named = caches.computeIfAbsent(
+                    name,
+                    n -> new NamedCache(cacheable.maximumSize(), expireAfterWrite)
+            );
+            Preconditions.checkState(
+                    named.maximumSize == cacheable.maximumSize() && Objects.equals(named.expireAfterWrite, expireAfterWrite),
+                    "Cache %s is declared with different maximum size or expiration: %s", name, method
+            );
+            return new MethodPlan(method, name, named.cache, ImmutableSet.of(), false);
+        }
+        Preconditions.checkState(evict != null, "Method is neither Cacheable nor CacheEvict: %s", method);
+        return new MethodPlan(method, null, null, ImmutableSet.copyOf(evict.value()), evict.allEntries());
+    }
+
+    /**
+     * Overloaded methods get different caches, e.g. {@code com.app.UserService.find(java.lang.Long)}
+     */
+    private static String defaultName(Method method) {
+        return Arrays.stream(method.getParameterTypes())
+                .map(Class::getTypeName)
+                .collect(Collectors.joining(",", method.getDeclaringClass().getName() + "." + method.getName() + "(", ")"));
+    }
+
+    /**
+     * Removes all entries of the cache
+     * @param name name of the cache
+     */
+    public void invalidate(String name) {
+        NamedCache named = caches.get(name);
+        if (named != null) named.cache.invalidateAll();
+    }
+
+    /**
+     * Forgets caching plans of methods declared in the class and removes all entries of their caches,
+     * so results of replaced component are not returned after hot reload
+     * @param componentClass replaced component class
+     */
+    public void invalidate(Class<?> componentClass) {
+        plans.values().removeIf(plan -> {
+            if (plan.method.getDeclaringClass() != componentClass) return false;
+            if (plan.cacheName != null) invalidate(plan.cacheName);
+            return true;
+        });
+    }
+
+    /**
+     * Removes all entries of all caches
+     */
+    public void invalidateAll() {
+        caches.values().forEach(c -> c.cache.invalidateAll());
+    }
+
+    /**
+     * @return names of created caches, cache is created when its first method is wired
+     */
+    public Set<String> getCacheNames() {
+        return ImmutableSet.copyOf(caches.keySet());
+    }
+
+    /**
+     * @return hits and misses of Cacheable methods, ordered by cache name
+     */
+    public List<CacheStatistics> getStatistics() {
+        return plans.values().stream()
+                .filter(p -> p.cache != null)
+                .map(p -> new CacheStatistics(p.method, p.cacheName, p.hits.sum(), p.misses.sum()))
+                .sorted(Comparator.comparing(CacheStatistics::getCacheName))
+                .collect(ImmutableList.toImmutableList());
+    }
+
+    /**
+     * Cache with settings it was created with
+     */
+    private static final class NamedCache {
+        private final long maximumSize;
+        // Null if entries do not expire
+        private final Duration expireAfterWrite;
+        private final Cache<Object, Object> cache;
+
+        private NamedCache(long maximumSize, Duration expireAfterWrite) {
+            this.maximumSize = maximumSize;
+            this.expireAfterWrite = expireAfterWrite;
+            CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder()
+                    .maximumSize(maximumSize)
+                    .concurrencyLevel(Runtime.getRuntime().availableProcessors());
+            if (expireAfterWrite != null)
+                builder.expireAfterWrite(expireAfterWrite);
+            this.cache = builder.build();
+        }
+    }
+
+    /**
+     * Resolved annotations of one method
+     */
+    private static final class MethodPlan {
+        private final Method method;
+        // Null for CacheEvict method
+        private final String cacheName;
+        // Null for CacheEvict method
+        private final Cache<Object, Object> cache;
+        // Names of caches evicted by CacheEvict method
+        private final Set<String> evicted;
+        private final boolean allEntries;
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+
+        private MethodPlan(
+                Method method,
+                String cacheName,
+                Cache<Object, Object> cache,
+                Set<String> evicted,
+                boolean allEntries
+        ) {
+            this.method = method;
+            this.cacheName = cacheName;
+            this.cache = cache;
+            this.evicted = evicted;
+            this.allEntries = allEntries;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.ivchenko.ioc.injector.cache;
+
+import java.lang.reflect.Method;
+
+/**
+ * Hits and misses of one {@link com.ivchenko.ioc.annotation.Cacheable} method since Injector start
+ */
+public final class CacheStatistics {
+    private final Method method;
+    private final String cacheName;
+    private final long hits;
+    private final long misses;
+
+    CacheStatistics(Method method, String cacheName, long hits, long misses) {
+        this.method = method;
+        this.cacheName = cacheName;
+        this.hits = hits;
+        this.misses = misses;
+    }
+
+    public Method getMethod() {
+        return method;
+    }
+
+    public String getCacheName() {
+        return cacheName;
+    }
+
+    /**
+     * @return number of calls which returned cached result
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return number of calls which invoked the method
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return ratio of hits to all calls, 1 if method was not called
+     */
+    public double getHitRate() {
+        long calls = hits + misses;
+        return calls == 0 ? 1 : (double) hits / calls;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "%s.%s [%s]: %d hits, %d misses, hit rate %.2f",
+                method.getDeclaringClass().getName(),
+                method.getName(),
+                cacheName,
+                hits,
+                misses,
+                getHitRate()
+        );
+    }
+}
@@ -0,0 +1,282 @@
+package com.ivchenko.ioc.injector.graph;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.ivchenko.ioc.injector.DependencyGraph;
+import com.ivchenko.ioc.injector.Injector;
+import com.ivchenko.ioc.injector.report.BeanCreationReport;
+import com.ivchenko.ioc.injector.report.StartupReport;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Analysis of resolved dependency graph of started Injector with creation cost of every component:
+ * critical path of startup, the longest dependency chains, fan-in hotspots and components nothing depends on.
+ * Graph can be exported to DOT (Graphviz) or JSON
+ */
+public final class GraphAnalysis {
+    private static final Comparator<Class<?>> BY_NAME = Comparator.comparing(Class::getName);
+
+    private final DependencyGraph graph;
+    // Key: Component class
+    // Value: Node of the component, in topological order
+    private final ImmutableMap<Class<?>, GraphNode> nodes;
+    // Chain of dependencies with the largest sum of creation times, in creation order
+    private final ImmutableList<Class<?>> criticalPath;
+    private final long criticalPathNanos;
+
+    private GraphAnalysis(DependencyGraph graph, Map<Class<?>, Long> creationNanos) {
+        this.graph = graph;
+        ImmutableMap.Builder<Class<?>, GraphNode> nodes = ImmutableMap.builder();
+        // Key: Component class
+        // Value: Creation time of the component and of its most expensive chain of dependencies
+        Map<Class<?>, Long> finish = Maps.newHashMap();
+        // Key: Component class
+        // Value: Dependency on the most expensive chain
+        Map<Class<?>, Class<?>> previous = Maps.newHashMap();
+        Class<?> last = null;
+        for (Class<?> c : graph.getTopologicalOrder()) {
+            long cost = creationNanos.getOrDefault(c, 0L);
+            nodes.put(c, new GraphNode(c, cost, graph.getDependencies(c).length, graph.getDependants(c).length, graph.getDepth(c)));
+            // Component is created when its slowest dependency is created
+            long start = 0;
+            Class<?> slowest = null;
+            for (Class<?> d : graph.getDependencies(c)) {
+                if (slowest == null || finish.get(d) > start) {
+                    start = finish.get(d);
+                    slowest = d;
+                }
+            }
+            if (slowest != null) previous.put(c, slowest);
+            finish.put(c, start + cost);
+            if (last == null || finish.get(c) > finish.get(last)) last = c;
+        }
+        this.nodes = nodes.build();
+        List<Class<?>> path = Lists.newArrayList();
+        for (Class<?> c = last; c != null; c = previous.get(c)) {
+            path.add(c);
+        }
+        this.criticalPath = ImmutableList.copyOf(Lists.reverse(path));
+        this.criticalPathNanos = last == null ? 0 : finish.get(last);
+    }
+
+    /**
+     * @param injector started Injector
+     * @return analysis of graph of specified Injector with creation times of its startup report
+     */
+    public static GraphAnalysis of(Injector injector) {
+        return of(injector.getDependencyGraph(), injector.getStartupReport());
+    }
+
+    /**
+     * @param graph resolved dependency graph
+     * @param report startup report with creation times of components
+     * @return analysis of the graph
+     */
+    public static GraphAnalysis of(DependencyGraph graph, StartupReport report) {
+        Map<Class<?>, Long> creationNanos = Maps.newHashMap();
+        for (BeanCreationReport bean : report.getBeans()) {
+            creationNanos.put(bean.getComponentClass(), bean.getTotalTime().toNanos());
+        }
+        return new GraphAnalysis(graph, creationNanos);
+    }
+
+    /**
+     * @return nodes of all components, each component comes after all its dependencies
+     */
+    public List<GraphNode> getNodes() {
+        return nodes.values().asList();
+    }
+
+    /**
+     * Components of critical path can not be created in parallel,
+     * so startup time with unlimited parallelism is not shorter than time of critical path
+     * @return chain of dependencies with the largest sum of creation times, in creation order
+     */
+    public List<Class<?>> getCriticalPath() {
+        return criticalPath;
+    }
+
+    /**
+     * @return sum of creation times of components of critical path
+     */
+    public Duration getCriticalPathTime() {
+        return Duration.ofNanos(criticalPathNanos);
+    }
+
+    /**
+     * @param n maximal number of returned chains
+     * @return the longest chains of dependencies starting from components nothing depends on,
+     * longest first, each chain in creation order
+     */
+    public List<List<Class<?>>> getLongestChains(int n) {
+        return getUnreferenced().stream()
+                .sorted(Comparator.comparingInt((Class<?> c) -> nodes.get(c).getDepth()).reversed().thenComparing(BY_NAME))
+                .limit(n)
+                .map(this::getLongestChain)
+                .collect(ImmutableList.toImmutableList());
+    }
+
+    private List<Class<?>> getLongestChain(Class<?> componentClass) {
+        List<Class<?>> chain = Lists.newArrayList();
+        for (Class<?> c = componentClass; c != null; ) {
+            chain.add(c);
+            Class<?> deepest = null;
+            for (Class<?> d : graph.getDependencies(c)) {
+                if (deepest == null || nodes.get(d).getDepth() > nodes.get(deepest).getDepth()) deepest = d;
+            }
+            c = deepest;
+        }
+        return Lists.reverse(chain);
+    }
+
+    /**
+     * @param n maximal number of returned components
+     * @return components with the largest number of dependants, most referenced first
+     */
+    public List<GraphNode> getFanInHotspots(int n) {
+        return nodes.values().stream()
+                .filter(node -> node.getDependants() > 0)
+                .sorted(Comparator.comparingInt(GraphNode::getDependants).reversed()
+                        .thenComparing(node -> node.getComponentClass().getName()))
+                .limit(n)
+                .collect(ImmutableList.toImmutableList());
+    }
+
+    /**
+     * Main class and components requested only with {@link Injector#getBean(Class)} are unreferenced as well,
+     * other unreferenced components are candidates for removal
+     * @return components which no other component depends on, ordered by name
+     */
+    public List<Class<?>> getUnreferenced() {
+        return nodes.values().stream()
+                .filter(node -> node.getDependants() == 0)
+                .map(GraphNode::getComponentClass)
+                .sorted(BY_NAME)
+                .collect(ImmutableList.toImmutableList());
+    }
+
+    /**
+     * Edges point from component to its dependencies, critical path is highlighted
+     * @return graph in Graphviz DOT format
+     */
+    public String toDot() {
+        Set<Class<?>> critical = Sets.newHashSet(criticalPath);
+        StringBuilder dot = new StringBuilder("digraph components {\n")
+                .append("  rankdir=LR;\n")
+                .append("  node [shape=box, fontname=\"monospace\"];\n");
+        for (GraphNode node : nodes.values()) {
+            dot.append("  ").append(quote(node.getComponentClass().getName()))
+                    .append(" [label=").append(quote(String.format(
+                            "%s\n%.3f ms", node.getComponentClass().getSimpleName(), node.getCreationNanos() / 1e6)))
+                    .append(critical.contains(node.getComponentClass()) ? ", color=red, penwidth=2" : "")
+                    .append("];\n");
+        }
+        for (int i = 0; i < criticalPath.size(); i++) {
+            Class<?> c = criticalPath.get(i);
+            Class<?> previous = i == 0 ? null : criticalPath.get(i - 1);
+            for (Class<?> d : graph.getDependencies(c)) {
+                dot.append("  ").append(quote(c.getName())).append(" -> ").append(quote(d.getName()))
+                        .append(d == previous ? " [color=red, penwidth=2]" : "").append(";\n");
+            }
+        }
+        for (GraphNode node : nodes.values()) {
+            Class<?> c = node.getComponentClass();
+            if (critical.contains(c)) continue;
+            for (Class<?> d : graph.getDependencies(c)) {
+                dot.append("  ").append(quote(c.getName())).append(" -> ").append(quote(d.getName())).append(";\n");
+            }
+        }
+        return dot.append("}\n").toString();
+    }
+
+    /**
+     * @param n maximal number of chains and hotspots
+     * @return components with their dependencies and creation times, critical path,
+     * the longest chains, fan-in hotspots and unreferenced components in JSON format
+     */
+    public String toJson(int n) {
+        StringBuilder json = new StringBuilder("{\n  \"components\": [\n");
+        List<String> components = Lists.newArrayList();
+        for (GraphNode node : nodes.values()) {
+            components.add(String.format(
+                    "    {\"name\": %s, \"creationNanos\": %d, \"depth\": %d, \"dependants\": %d, \"dependencies\": %s}",
+                    quote(node.getComponentClass().getName()),
+                    node.getCreationNanos(),
+                    node.getDepth(),
+                    node.getDependants(),
+                    toJsonArray(List.of(graph.getDependencies(node.getComponentClass())))
+            ));
+        }
+        json.append(String.join(",\n", components)).append("\n  ],\n");
+        json.append("  \"criticalPath\": {\"nanos\": ").append(criticalPathNanos)
+                .append(", \"components\": ").append(toJsonArray(criticalPath)).append("},\n");
+        json.append("  \"longestChains\": [")
+                .append(getLongestChains(n).stream().map(GraphAnalysis::toJsonArray).collect(Collectors.joining(", ")))
+                .append("],\n");
+        json.append("  \"fanInHotspots\": [")
+                .append(getFanInHotspots(n).stream()
+                        .map(node -> String.format(
+                                "{\"name\": %s, \"dependants\": %d}",
+                                quote(node.getComponentClass().getName()),
+                                node.getDependants()))
+                        .collect(Collectors.joining(", ")))
+                .append("],\n");
+        json.append("  \"unreferenced\": ").append(toJsonArray(getUnreferenced())).append("\n}\n");
+        return json.toString();
+    }
+
+    /**
+     * @param n maximal number of chains and hotspots
+     * @return human-readable report
+     */
+    public String format(int n) {
+        StringBuilder builder = new StringBuilder();
+        builder.append(String.format("Components: %d%n", nodes.size()));
+        builder.append(String.format("Critical path: %.3f ms%n", criticalPathNanos / 1e6));
+        criticalPath.forEach(c -> builder.append("  ").append(nodes.get(c)).append(System.lineSeparator()));
+        builder.append(String.format("Longest chains:%n"));
+        getLongestChains(n).forEach(chain -> builder.append(String.format("  %d: %s%n",
+                chain.size(), chain.stream().map(Class::getSimpleName).collect(Collectors.joining(" -> ")))));
+        builder.append(String.format("Fan-in hotspots:%n"));
+        getFanInHotspots(n).forEach(node -> builder.append("  ").append(node).append(System.lineSeparator()));
+        builder.append(String.format("Unreferenced components:%n"));
+        getUnreferenced().forEach(c -> builder.append("  ").append(c.getName()).append(System.lineSeparator()));
+        return builder.toString();
+    }
+
+    @Override
+    public String toString() {
+        return format(10);
+    }
+
+    private static String toJsonArray(List<Class<?>> classes) {
+        return classes.stream().map(c -> quote(c.getName())).collect(Collectors.joining(", ", "[", "]"));
+    }
+
+    /**
+     * @return string literal valid in both JSON and DOT
+     */
+    private static String quote(String value) {
+        Preconditions.checkNotNull(value);
+        StringBuilder quoted = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '"': quoted.append("\\\""); break;
+                case '\\': quoted.append("\\\\"); break;
+                case '\n': quoted.append("\\n"); break;
+                default: quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+}
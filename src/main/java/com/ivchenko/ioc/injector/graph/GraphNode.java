@@ -0,0 +1,70 @@
+package com.ivchenko.ioc.injector.graph;
+
+import java.time.Duration;
+
+/**
+ * One component of analyzed dependency graph
+ */
+public final class GraphNode {
+    private final Class<?> componentClass;
+    private final long creationNanos;
+    private final int dependencies;
+    private final int dependants;
+    private final int depth;
+
+    GraphNode(Class<?> componentClass, long creationNanos, int dependencies, int dependants, int depth) {
+        this.componentClass = componentClass;
+        this.creationNanos = creationNanos;
+        this.dependencies = dependencies;
+        this.dependants = dependants;
+        this.depth = depth;
+    }
+
+    public Class<?> getComponentClass() {
+        return componentClass;
+    }
+
+    /**
+     * @return constructor and PostConstructor time, zero if component was not created during startup
+     */
+    public Duration getCreationTime() {
+        return Duration.ofNanos(creationNanos);
+    }
+
+    long getCreationNanos() {
+        return creationNanos;
+    }
+
+    /**
+     * @return number of components this component depends on
+     */
+    public int getDependencies() {
+        return dependencies;
+    }
+
+    /**
+     * @return number of components depending on this component (fan-in)
+     */
+    public int getDependants() {
+        return dependants;
+    }
+
+    /**
+     * @return length of the longest chain of dependencies, 0 if component has no dependencies
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "%s: creation %.3f ms, %d dependencies, %d dependants, depth %d",
+                componentClass.getName(),
+                creationNanos / 1e6,
+                dependencies,
+                dependants,
+                depth
+        );
+    }
+}
@@ -0,0 +1,91 @@
+package com.ivchenko.ioc.injector.graph;
+
+import com.ivchenko.ioc.injector.Injector;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Command line tool, starts application with its class path, analyzes dependency graph and prints or writes it.
+ * Usage: {@code java -cp <application class path> com.ivchenko.ioc.injector.graph.GraphTool <main class>
+ * [--format text|dot|json] [--top N] [--profile name]... [--output file]}
+ */
+public final class GraphTool {
+    private static final String USAGE = "Usage: GraphTool <main class> [--format text|dot|json] [--top N] "
+            + "[--profile name]... [--output file]";
+
+    private GraphTool() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0 || args[0].startsWith("--")) {
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+        String format = "text";
+        String output = null;
+        int top = 10;
+        List<String> profiles = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            if (i + 1 == args.length) exit("Missing value of " + args[i]);
+            String value = args[++i];
+            switch (args[i - 1]) {
+                case "--format":
+                    format = value;
+                    break;
+                case "--top":
+                    top = Integer.parseInt(value);
+                    break;
+                case "--profile":
+                    profiles.add(value);
+                    break;
+                case "--output":
+                    output = value;
+                    break;
+                default:
+                    exit("Unknown option " + args[i - 1]);
+            }
+        }
+
+        Class<?> mainClass;
+        try {
+            mainClass = Class.forName(args[0], false, Thread.currentThread().getContextClassLoader());
+        } catch (ClassNotFoundException e) {
+            exit("Main class not found: " + args[0]);
+            return;
+        }
+        String result;
+        try (Injector injector = Injector.create(mainClass).profiles(profiles.toArray(new String[0])).start()) {
+            result = render(GraphAnalysis.of(injector), format, top);
+        }
+        if (output == null) {
+            System.out.print(result);
+        } else {
+            Files.write(Paths.get(output), result.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static String render(GraphAnalysis analysis, String format, int top) {
+        switch (format) {
+            case "text":
+                return analysis.format(top);
+            case "dot":
+                return analysis.toDot();
+            case "json":
+                return analysis.toJson(top);
+            default:
+                exit("Unknown format " + format);
+                return null;
+        }
+    }
+
+    private static void exit(String message) {
+        System.err.println(message);
+        System.err.println(USAGE);
+        System.exit(2);
+    }
+}
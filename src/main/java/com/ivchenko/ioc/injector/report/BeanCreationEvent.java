@@ -0,0 +1,35 @@
+package com.ivchenko.ioc.injector.report;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event, committed for every component creation when enabled in recording settings.
+ * Should be accessed only through {@link BeanCreationEvents}, so Injector works without jdk.jfr module
+ */
+@Name("com.ivchenko.ioc.BeanCreation")
+@Label("Bean Creation")
+@Category("Ivchenko IoC")
+@Description("Creation of component instance by Injector")
+@SuppressWarnings("unused")
+final class BeanCreationEvent extends Event {
+    @Label("Component Class")
+    Class<?> componentClass;
+
+    @Label("Constructor Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long constructorTime;
+
+    @Label("Post Constructor Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long postConstructorTime;
+
+    @Label("Allocated")
+    @DataAmount
+    long allocated;
+}
@@ -0,0 +1,72 @@
+package com.ivchenko.ioc.injector.report;
+
+import jdk.jfr.EventType;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Entry point for bean creation instrumentation: JFR events and allocation measurement.
+ * Both are optional, if JVM does not support them methods are no-op
+ */
+public final class BeanCreationEvents {
+    private static final boolean JFR_AVAILABLE = ModuleLayer.boot().findModule("jdk.jfr").isPresent();
+    private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+    private static final boolean ALLOCATIONS_AVAILABLE = isAllocationMeasurementSupported();
+
+    private BeanCreationEvents() {
+    }
+
+    /**
+     * @return true if bean creation JFR event is enabled in current recording
+     */
+    public static boolean isEnabled() {
+        return JFR_AVAILABLE && Jfr.TYPE.isEnabled();
+    }
+
+    /**
+     * Commits bean creation JFR event, should be called only if {@link #isEnabled()}
+     */
+    public static void commit(
+            Class<?> componentClass,
+            long constructorNanos,
+            long postConstructorNanos,
+            long allocatedBytes
+    ) {
+        if (JFR_AVAILABLE) Jfr.commit(componentClass, constructorNanos, postConstructorNanos, allocatedBytes);
+    }
+
+    /**
+     * @return bytes allocated by current thread, -1 if not supported
+     */
+    public static long currentThreadAllocatedBytes() {
+        if (!ALLOCATIONS_AVAILABLE) return -1;
+        return ((com.sun.management.ThreadMXBean) THREAD_MX_BEAN).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static boolean isAllocationMeasurementSupported() {
+        try {
+            return THREAD_MX_BEAN instanceof com.sun.management.ThreadMXBean
+                    && ((com.sun.management.ThreadMXBean) THREAD_MX_BEAN).isThreadAllocatedMemorySupported()
+                    && ((com.sun.management.ThreadMXBean) THREAD_MX_BEAN).isThreadAllocatedMemoryEnabled();
+        } catch (LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * Loaded only if jdk.jfr module is present
+     */
+    private static final class Jfr {
+        private static final EventType TYPE = EventType.getEventType(BeanCreationEvent.class);
+
+        private static void commit(Class<?> componentClass, long constructorNanos, long postConstructorNanos, long allocatedBytes) {
+            BeanCreationEvent event = new BeanCreationEvent();
+            event.componentClass = componentClass;
+            event.constructorTime = constructorNanos;
+            event.postConstructorTime = postConstructorNanos;
+            event.allocated = allocatedBytes;
+            event.commit();
+        }
+    }
+}
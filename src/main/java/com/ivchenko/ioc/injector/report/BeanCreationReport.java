@@ -0,0 +1,95 @@
+package com.ivchenko.ioc.injector.report;
+
+import java.time.Duration;
+
+/**
+ * Timings of one component creation
+ */
+public final class BeanCreationReport {
+    private final Class<?> componentClass;
+    private final long constructorNanos;
+    private final long postConstructorNanos;
+    private final int dependencyDepth;
+    private final long allocatedBytes;
+    private final String threadName;
+
+    public BeanCreationReport(
+            Class<?> componentClass,
+            long constructorNanos,
+            long postConstructorNanos,
+            int dependencyDepth,
+            long allocatedBytes,
+            String threadName
+    ) {
+        this.componentClass = componentClass;
+        this.constructorNanos = constructorNanos;
+        this.postConstructorNanos = postConstructorNanos;
+        this.dependencyDepth = dependencyDepth;
+        this.allocatedBytes = allocatedBytes;
+        this.threadName = threadName;
+    }
+
+    public Class<?> getComponentClass() {
+        return componentClass;
+    }
+
+    /**
+     * @return time spent in constructor
+     */
+    public Duration getConstructorTime() {
+        return Duration.ofNanos(constructorNanos);
+    }
+
+    /**
+     * @return time spent in PostConstructor method
+     */
+    public Duration getPostConstructorTime() {
+        return Duration.ofNanos(postConstructorNanos);
+    }
+
+    /**
+     * @return constructor and PostConstructor time
+     */
+    public Duration getTotalTime() {
+        return Duration.ofNanos(getTotalNanos());
+    }
+
+    long getTotalNanos() {
+        return constructorNanos + postConstructorNanos;
+    }
+
+    /**
+     * @return length of the longest chain of dependencies, 0 if component has no dependencies
+     */
+    public int getDependencyDepth() {
+        return dependencyDepth;
+    }
+
+    /**
+     * @return bytes allocated by creating thread during constructor and PostConstructor,
+     * -1 if JVM does not support allocation measurement
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * @return name of the thread which created component
+     */
+    public String getThreadName() {
+        return threadName;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "%s: total %.3f ms (constructor %.3f ms, post constructor %.3f ms), depth %d, allocated %d bytes",
+                componentClass.getName(),
+                getTotalNanos() / 1e6,
+                constructorNanos / 1e6,
+                postConstructorNanos / 1e6,
+                dependencyDepth,
+                allocatedBytes
+        );
+    }
+}
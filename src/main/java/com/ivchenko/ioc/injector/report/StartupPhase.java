@@ -0,0 +1,23 @@
+package com.ivchenko.ioc.injector.report;
+
+/**
+ * Phases of Injector startup, measured in {@link StartupReport}
+ */
+public enum StartupPhase {
+    /**
+     * Reading component index or scanning class path
+     */
+    CLASSPATH_SCAN,
+    /**
+     * Filtering classes annotated with {@link com.ivchenko.ioc.annotation.Component}
+     */
+    ANNOTATION_FILTERING,
+    /**
+     * Building registry, bean definitions, dependency graph and holders
+     */
+    MAP_POPULATION,
+    /**
+     * Creating instances of components
+     */
+    INSTANTIATION
+}
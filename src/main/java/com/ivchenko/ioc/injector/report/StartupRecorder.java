@@ -0,0 +1,86 @@
+package com.ivchenko.ioc.injector.report;
+
+import com.google.common.collect.Maps;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+/**
+ * Collects timings during Injector startup and builds {@link StartupReport}.
+ * Components can be created concurrently, so bean creation records are synchronized
+ */
+public final class StartupRecorder {
+    private final Map<StartupPhase, Duration> phases = Maps.newEnumMap(StartupPhase.class);
+    private final List<BeanCreation> creations = Collections.synchronizedList(new ArrayList<>());
+    private long phaseStart = System.nanoTime();
+
+    /**
+     * Finishes current phase, next phase starts immediately
+     * @param phase finished phase
+     */
+    public void phaseFinished(StartupPhase phase) {
+        long now = System.nanoTime();
+        phases.merge(phase, Duration.ofNanos(now - phaseStart), Duration::plus);
+        phaseStart = now;
+    }
+
+    /**
+     * Records creation of one component, can be called from any thread
+     */
+    public void beanCreated(Class<?> componentClass, long constructorNanos, long postConstructorNanos, long allocatedBytes) {
+        creations.add(new BeanCreation(
+                componentClass,
+                constructorNanos,
+                postConstructorNanos,
+                allocatedBytes,
+                Thread.currentThread().getName()
+        ));
+    }
+
+    /**
+     * @param dependencyDepth returns dependency depth for component class
+     * @return report with all recorded timings
+     */
+    public StartupReport build(ToIntFunction<Class<?>> dependencyDepth) {
+        List<BeanCreationReport> beans = new ArrayList<>();
+        synchronized (creations) {
+            for (BeanCreation c : creations) {
+                beans.add(new BeanCreationReport(
+                        c.componentClass,
+                        c.constructorNanos,
+                        c.postConstructorNanos,
+                        dependencyDepth.applyAsInt(c.componentClass),
+                        c.allocatedBytes,
+                        c.threadName
+                ));
+            }
+        }
+        return new StartupReport(phases, beans);
+    }
+
+    private static final class BeanCreation {
+        private final Class<?> componentClass;
+        private final long constructorNanos;
+        private final long postConstructorNanos;
+        private final long allocatedBytes;
+        private final String threadName;
+
+        private BeanCreation(
+                Class<?> componentClass,
+                long constructorNanos,
+                long postConstructorNanos,
+                long allocatedBytes,
+                String threadName
+        ) {
+            this.componentClass = componentClass;
+            this.constructorNanos = constructorNanos;
+            this.postConstructorNanos = postConstructorNanos;
+            this.allocatedBytes = allocatedBytes;
+            this.threadName = threadName;
+        }
+    }
+}
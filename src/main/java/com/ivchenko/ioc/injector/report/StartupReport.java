@@ -0,0 +1,88 @@
+package com.ivchenko.ioc.injector.report;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Timings of Injector startup: duration of every phase and creation timings of every component
+ * created during startup
+ */
+public final class StartupReport {
+    private final ImmutableMap<StartupPhase, Duration> phases;
+    private final ImmutableList<BeanCreationReport> beans;
+
+    public StartupReport(Map<StartupPhase, Duration> phases, List<BeanCreationReport> beans) {
+        this.phases = ImmutableMap.copyOf(phases);
+        this.beans = ImmutableList.copyOf(beans);
+    }
+
+    /**
+     * @return duration of specified phase, zero if phase was skipped
+     */
+    public Duration getPhaseTime(StartupPhase phase) {
+        return phases.getOrDefault(phase, Duration.ZERO);
+    }
+
+    /**
+     * @return duration of all phases
+     */
+    public Duration getTotalTime() {
+        return phases.values().stream().reduce(Duration.ZERO, Duration::plus);
+    }
+
+    /**
+     * @return reports of all components created during startup
+     */
+    public List<BeanCreationReport> getBeans() {
+        return beans;
+    }
+
+    /**
+     * @return report of specified component or empty Optional if it was not created during startup
+     */
+    public Optional<BeanCreationReport> getBean(Class<?> componentClass) {
+        return beans.stream()
+                .filter(b -> b.getComponentClass() == componentClass)
+                .findFirst();
+    }
+
+    /**
+     * @param n maximal number of returned components
+     * @return components with the longest creation time, slowest first
+     */
+    public List<BeanCreationReport> getSlowestBeans(int n) {
+        return beans.stream()
+                .sorted(Comparator.comparingLong(BeanCreationReport::getTotalNanos).reversed())
+                .limit(n)
+                .collect(ImmutableList.toImmutableList());
+    }
+
+    /**
+     * @param topN number of the slowest components to include
+     * @return human-readable report with phases timings and the slowest components
+     */
+    public String format(int topN) {
+        StringBuilder builder = new StringBuilder();
+        builder.append(String.format("Startup: %.3f ms, %d components created%n", getTotalTime().toNanos() / 1e6, beans.size()));
+        for (StartupPhase phase : StartupPhase.values()) {
+            builder.append(String.format("  %-20s %.3f ms%n", phase, getPhaseTime(phase).toNanos() / 1e6));
+        }
+        builder.append(String.format("Slowest components:%n"));
+        builder.append(getSlowestBeans(topN).stream()
+                .map(b -> "  " + b)
+                .collect(Collectors.joining(System.lineSeparator())));
+        return builder.toString();
+    }
+
+    @Override
+    public String toString() {
+        return format(10);
+    }
+}
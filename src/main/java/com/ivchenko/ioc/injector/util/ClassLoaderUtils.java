@@ -1,9 +1,19 @@
 package com.ivchenko.ioc.injector.util;
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import com.google.common.reflect.ClassPath;
+import com.ivchenko.ioc.injector.ComponentConditions;
 
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 
 /**
@@ -11,6 +21,12 @@ import java.util.Set;
  * @implNote Implemented used Google Guava
  */
 public class ClassLoaderUtils {
+    /**
+     * Class path location of the component index written by
+     * {@link com.ivchenko.ioc.processor.ComponentIndexProcessor}
+     */
+    public static final String COMPONENT_INDEX_LOCATION = "META-INF/ivchenko/components.idx";
+
     /**
      * Returns classes for the specified package
      * @param packageName name of the package from which the classes will be read
@@ -46,4 +62,53 @@ public class ClassLoaderUtils {
     public static Set<Class<?>> getClassesInPackage(String packageName) throws IOException {
         return getClassesInPackage(packageName, true);
     }
+
+    /**
+     * Returns entries of component indexes for the specified package without loading classes.
+     * Entry is binary name of the component class, optionally followed by its conditions ({@link ComponentConditions})
+     * @param packageName name of the package from which the entries will be read
+     * @return index entries of components in package or empty Optional if no component index in class path
+     * lists classes of the package, e.g. only indexes of libraries are found, so the package is scanned instead
+     * @throws IOException if the attempt to read component index failed
+     */
+    public static Optional<List<String>> getIndexEntriesInPackage(String packageName) throws IOException {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        Enumeration<URL> indexes = classLoader.getResources(COMPONENT_INDEX_LOCATION);
+        if (!indexes.hasMoreElements()) return Optional.empty();
+
+        List<String> entries = Lists.newArrayList();
+        while (indexes.hasMoreElements()) {
+            for (String entry : readIndex(indexes.nextElement())) {
+                if (entry.startsWith(packageName))
+                    entries.add(entry);
+            }
+        }
+        return entries.isEmpty() ? Optional.empty() : Optional.of(entries);
+    }
+
+    private static Set<String> readIndex(URL index) throws IOException {
+        Set<String> names = Sets.newLinkedHashSet();
+        try (InputStream in = index.openStream();
+             BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (!line.isEmpty()) names.add(line);
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Loads class listed in component index, class is not initialized
+     * @param name binary name of the class
+     * @return loaded class
+     */
+    public static Class<?> loadIndexedClass(String name) {
+        try {
+            return Class.forName(name, false, Thread.currentThread().getContextClassLoader());
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("Component index refers to missing class: " + name, e);
+        }
+    }
 }
@@ -1,22 +1,40 @@
 package com.ivchenko.ioc.injector.util;
 
-import com.google.common.reflect.Invokable;
+import com.google.common.base.Preconditions;
 import com.ivchenko.ioc.annotation.Autowired;
+import com.ivchenko.ioc.annotation.EventListener;
+import com.ivchenko.ioc.annotation.InterceptorBinding;
 import com.ivchenko.ioc.annotation.PostConstructor;
+import com.ivchenko.ioc.annotation.PreDestroy;
 import com.ivchenko.ioc.annotation.Qualifier;
+import com.ivchenko.ioc.annotation.Value;
+import com.ivchenko.ioc.annotation.WarmUp;
+import com.ivchenko.ioc.injector.aop.MethodInterceptor;
 
 import java.lang.annotation.Annotation;
+import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
 import java.lang.reflect.Method;
-import java.lang.reflect.Parameter;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletionStage;
 import java.util.stream.Collectors;
 
 /**
  * Utility class used to make work with Reflections more convenient
- * @implNote Uses Google Guava Reflect API
  */
 public class ReflectionUtils {
     public static Set<Class<?>> getClassesAnnotatedWith(
@@ -28,59 +46,188 @@ public class ReflectionUtils {
                 .collect(Collectors.toSet());
     }
 
-    public static String getQualifierValue(Parameter parameter) {
-        Qualifier annotation = parameter.getAnnotation(Qualifier.class);
+    public static String getQualifierValue(AnnotatedElement element) {
+        Qualifier annotation = element.getAnnotation(Qualifier.class);
         if (annotation != null)
-            return parameter.getDeclaredAnnotation(Qualifier.class).value();
+            return annotation.value();
         else return null;
     }
 
-    public static boolean hasAutowiredConstructor(Class<?> clazz) {
-        return Arrays.stream(clazz.getConstructors())
-                .anyMatch(ReflectionUtils::isAutowired);
+    public static String getPropertyExpression(AnnotatedElement element) {
+        Value annotation = element.getAnnotation(Value.class);
+        if (annotation != null)
+            return annotation.value();
+        else return null;
     }
 
-    public static Set<Constructor<?>> getAllConstructors(Class<?> clazz) {
-        return Arrays.stream(clazz.getConstructors())
-                .collect(Collectors.toSet());
+    /**
+     * Returns constructor which should be used for injection:
+     * constructor annotated with {@link Autowired}, otherwise constructor with no arguments,
+     * otherwise the only public constructor.
+     * Order of {@link Class#getConstructors()} is unspecified, so several public constructors
+     * without {@link Autowired} and without no arguments constructor are rejected.
+     * All constructors are walked only once
+     * @return constructor which should be used for injection
+     */
+    public static Constructor<?> getInjectionConstructor(Class<?> clazz) {
+        Constructor<?>[] constructors = clazz.getConstructors();
+        Preconditions.checkState(constructors.length > 0, "No public constructors declared: %s", clazz);
+
+        Constructor<?> autowired = null;
+        Constructor<?> noArgs = null;
+        for (Constructor<?> c : constructors) {
+            if (c.isAnnotationPresent(Autowired.class)) {
+                Preconditions.checkState(autowired == null, "Too many autowired constructors: %s", clazz.getName());
+                autowired = c;
+            } else if (c.getParameterCount() == 0) {
+                noArgs = c;
+            }
+        }
+        if (autowired != null) return autowired;
+        if (noArgs != null) return noArgs;
+        Preconditions.checkState(
+                constructors.length == 1,
+                "Too many public constructors, annotate one of them with Autowired: %s", clazz.getName()
+        );
+        return constructors[0];
     }
 
-    public static Set<Constructor<?>> getAutowiredConstructors(Class<?> clazz) {
-        return Arrays.stream(clazz.getConstructors())
-                .filter(ReflectionUtils::isAutowired)
-                .collect(Collectors.toSet());
+    /**
+     * Returns method annotated with {@link PostConstructor}
+     * @return PostConstructor method or empty Optional if class does not declare it
+     */
+    public static Optional<Method> getPostConstructorMethod(Class<?> clazz) {
+        Method postConstructor = null;
+        for (Method m : clazz.getMethods()) {
+            if (!m.isAnnotationPresent(PostConstructor.class)) continue;
+            Preconditions.checkState(postConstructor == null, "Too many PostConstructor methods: %s", clazz.getName());
+            Preconditions.checkState(m.getParameterCount() == 0, "Invalid PostConstructor parameters count: %s", m);
+            postConstructor = m;
+        }
+        return Optional.ofNullable(postConstructor);
     }
 
-    public static boolean hasNoArgsConstructor(Class<?> clazz) {
-        return Arrays.stream(clazz.getConstructors())
-                .anyMatch(c -> c.getParameterCount() == 0);
+    /**
+     * Returns method annotated with {@link WarmUp}
+     * @return WarmUp method or empty Optional if class does not declare it
+     */
+    public static Optional<Method> getWarmUpMethod(Class<?> clazz) {
+        Method warmUp = null;
+        for (Method m : clazz.getMethods()) {
+            if (!m.isAnnotationPresent(WarmUp.class)) continue;
+            Preconditions.checkState(warmUp == null, "Too many WarmUp methods: %s", clazz.getName());
+            Preconditions.checkState(m.getParameterCount() == 0, "Invalid WarmUp parameters count: %s", m);
+            Preconditions.checkState(
+                    m.getReturnType() == void.class || CompletionStage.class.isAssignableFrom(m.getReturnType()),
+                    "WarmUp method should return CompletionStage or void: %s", m
+            );
+            warmUp = m;
+        }
+        return Optional.ofNullable(warmUp);
     }
 
-    public static Set<Method> getPostConstructorMethods(Class<?> clazz) {
-        return Arrays.stream(clazz.getMethods())
-                .filter(ReflectionUtils::isPostConstructor)
-                .collect(Collectors.toSet());
+    /**
+     * Returns method annotated with {@link PreDestroy}
+     * @return PreDestroy method or empty Optional if class does not declare it
+     */
+    public static Optional<Method> getPreDestroyMethod(Class<?> clazz) {
+        Method preDestroy = null;
+        for (Method m : clazz.getMethods()) {
+            if (!m.isAnnotationPresent(PreDestroy.class)) continue;
+            Preconditions.checkState(preDestroy == null, "Too many PreDestroy methods: %s", clazz.getName());
+            Preconditions.checkState(m.getParameterCount() == 0, "Invalid PreDestroy parameters count: %s", m);
+            preDestroy = m;
+        }
+        return Optional.ofNullable(preDestroy);
     }
 
-    private static boolean isAutowired(Constructor<?> constructor) {
-        return hasAnnotation(Autowired.class, constructor);
+    /**
+     * Returns public methods annotated with {@link EventListener}
+     * @return listener methods, empty list if class does not declare them
+     */
+    public static List<Method> getEventListenerMethods(Class<?> clazz) {
+        List<Method> listeners = new ArrayList<>();
+        for (Method m : clazz.getMethods()) {
+            EventListener annotation = m.getAnnotation(EventListener.class);
+            if (annotation == null) continue;
+            Preconditions.checkState(!Modifier.isStatic(m.getModifiers()), "EventListener method is static: %s", m);
+            Preconditions.checkState(m.getParameterCount() == 1, "Invalid EventListener parameters count: %s", m);
+            Class<?> parameter = m.getParameterTypes()[0];
+            Preconditions.checkState(!parameter.isPrimitive(), "EventListener parameter is primitive: %s", m);
+            Preconditions.checkState(
+                    annotation.delivery() != EventListener.Delivery.BATCH || parameter == List.class,
+                    "Batch EventListener parameter should be List: %s", m
+            );
+            listeners.add(m);
+        }
+        return listeners;
     }
 
-    private static boolean isPostConstructor(Method method) {
-        return hasAnnotation(PostConstructor.class, method);
+    /**
+     * Returns fields and methods annotated with {@link Autowired}, declared in class or its superclasses.
+     * Members of superclasses come first, methods overridden in subclass are returned once
+     * @return autowired fields and single parameter methods
+     */
+    public static List<Member> getAutowiredMembers(Class<?> clazz) {
+        Deque<Class<?>> hierarchy = new ArrayDeque<>();
+        for (Class<?> c = clazz; c != null && c != Object.class; c = c.getSuperclass()) {
+            hierarchy.push(c);
+        }
+        List<Member> members = new ArrayList<>();
+        // Overriding method is invoked through overridden one, so it is not injected twice
+        Set<String> injectedSignatures = new HashSet<>();
+        for (Class<?> c : hierarchy) {
+            for (Field f : c.getDeclaredFields()) {
+                if (!f.isAnnotationPresent(Autowired.class)) continue;
+                Preconditions.checkState(!Modifier.isStatic(f.getModifiers()), "Autowired field is static: %s", f);
+                Preconditions.checkState(!Modifier.isFinal(f.getModifiers()), "Autowired field is final: %s", f);
+                members.add(f);
+            }
+            for (Method m : c.getDeclaredMethods()) {
+                if (!m.isAnnotationPresent(Autowired.class)) continue;
+                Preconditions.checkState(!Modifier.isStatic(m.getModifiers()), "Autowired method is static: %s", m);
+                Preconditions.checkState(m.getParameterCount() == 1, "Invalid Autowired method parameters count: %s", m);
+                String signature = m.getName() + Arrays.toString(m.getParameterTypes());
+                if (!Modifier.isPrivate(m.getModifiers()) && !injectedSignatures.add(signature)) continue;
+                members.add(m);
+            }
+        }
+        return members;
     }
 
-    private static boolean hasAnnotation(
-            Class<? extends Annotation> annotation,
-            Constructor<?> constructor
-    ) {
-        return Invokable.from(constructor).isAnnotationPresent(annotation);
+    /**
+     * Returns public methods intercepted by {@link InterceptorBinding} annotations of the method or of the class.
+     * Interceptors of class annotations come first, methods of Object and final methods are not intercepted
+     * @return interceptor classes by intercepted methods, empty map if class is not intercepted
+     */
+    public static Map<Method, List<Class<? extends MethodInterceptor>>> getInterceptorBindings(Class<?> clazz) {
+        List<Class<? extends MethodInterceptor>> classInterceptors = getInterceptors(clazz);
+        Map<Method, List<Class<? extends MethodInterceptor>>> bindings = new LinkedHashMap<>();
+        for (Method m : clazz.getMethods()) {
+            if (m.getDeclaringClass() == Object.class || m.isBridge() || Modifier.isStatic(m.getModifiers())) continue;
+            List<Class<? extends MethodInterceptor>> methodInterceptors = getInterceptors(m);
+            if (Modifier.isFinal(m.getModifiers())) {
+                Preconditions.checkState(methodInterceptors.isEmpty(), "Intercepted method is final: %s", m);
+                continue;
+            }
+            Set<Class<? extends MethodInterceptor>> interceptors = new LinkedHashSet<>(classInterceptors);
+            interceptors.addAll(methodInterceptors);
+            if (!interceptors.isEmpty())
+                bindings.put(m, List.copyOf(interceptors));
+        }
+        Preconditions.checkState(
+                bindings.isEmpty() || !Modifier.isFinal(clazz.getModifiers()),
+                "Intercepted class is final: %s", clazz.getName()
+        );
+        return bindings;
     }
 
-    private static boolean hasAnnotation(
-            Class<? extends Annotation> annotation,
-            Method method
-    ) {
-        return Invokable.from(method).isAnnotationPresent(annotation);
+    private static List<Class<? extends MethodInterceptor>> getInterceptors(AnnotatedElement element) {
+        List<Class<? extends MethodInterceptor>> interceptors = new ArrayList<>();
+        for (Annotation a : element.getAnnotations()) {
+            InterceptorBinding binding = a.annotationType().getAnnotation(InterceptorBinding.class);
+            if (binding != null) interceptors.add(binding.value());
+        }
+        return interceptors;
     }
 }
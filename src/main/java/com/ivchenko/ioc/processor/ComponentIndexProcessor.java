@@ -0,0 +1,73 @@
+package com.ivchenko.ioc.processor;
+
+import com.ivchenko.ioc.annotation.Component;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static com.ivchenko.ioc.injector.util.ClassLoaderUtils.COMPONENT_INDEX_LOCATION;
+
+/**
+ * Annotation processor, writes names of all {@link Component} classes with their conditions to the component index
+ * ({@link com.ivchenko.ioc.injector.util.ClassLoaderUtils#COMPONENT_INDEX_LOCATION}),
+ * so Injector can skip class path scanning at startup and skip loading of components which do not match conditions
+ */
+@SupportedAnnotationTypes("com.ivchenko.ioc.annotation.Component")
+public class ComponentIndexProcessor extends AbstractProcessor {
+    private final Set<String> componentNames = new TreeSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getElementsAnnotatedWith(Component.class)) {
+            if (element.getKind() != ElementKind.CLASS) continue;
+            componentNames.add(processingEnv.getElementUtils().getBinaryName((TypeElement) element).toString());
+        }
+        if (roundEnv.processingOver() && !componentNames.isEmpty()) {
+            writeIndex();
+        }
+        return false;
+    }
+
+    private void writeIndex() {
+        try {
+            // Incremental compilation passes only changed sources, so entries of the previous index are kept
+            // as long as their classes still exist and are still components
+            componentNames.addAll(ProcessorUtils.readPreviousIndex(processingEnv));
+
+            FileObject index = processingEnv.getFiler()
+                    .createResource(StandardLocation.CLASS_OUTPUT, "", COMPONENT_INDEX_LOCATION);
+            try (Writer writer = index.openWriter()) {
+                for (String name : componentNames) {
+                    writer.write(name);
+                    // Conditions are checked by Injector before component class is loaded
+                    TypeElement component = ProcessorUtils.getComponent(processingEnv, name);
+                    if (component != null)
+                        writer.write(ProcessorUtils.getConditions(processingEnv, component));
+                    writer.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(
+                    Diagnostic.Kind.ERROR,
+                    "Unable to write component index: " + e.getMessage()
+            );
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package com.ivchenko.ioc.processor;
+
+import com.ivchenko.ioc.annotation.Component;
+import com.ivchenko.ioc.injector.aop.Intercepted;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.ExecutableType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Annotation processor, generates subclass of every {@link Component} with interceptor bindings
+ * ({@link com.ivchenko.ioc.annotation.InterceptorBinding}), named {@code <component>$$Intercepted}.
+ * Subclass overrides only intercepted methods: they pass the call through chain of interceptors,
+ * which ends with plain Java call of overridden method. Other methods are inherited and called directly
+ */
+@SupportedAnnotationTypes("com.ivchenko.ioc.annotation.Component")
+public class InterceptionProcessor extends AbstractProcessor {
+    private static final String INTERCEPTED = "com.ivchenko.ioc.injector.aop.Intercepted";
+    private static final String INVOCATION = "com.ivchenko.ioc.injector.aop.Invocation";
+    private static final String METHOD_INTERCEPTOR = "com.ivchenko.ioc.injector.aop.MethodInterceptor";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getElementsAnnotatedWith(Component.class)) {
+            if (element.getKind() != ElementKind.CLASS) continue;
+            TypeElement component = (TypeElement) element;
+            checkFinalMethods(component);
+            List<ExecutableElement> methods = ProcessorUtils.getInterceptedMethods(processingEnv, component);
+            if (methods.isEmpty() || !canBeSubclassed(component)) continue;
+            generate(component, methods);
+        }
+        return false;
+    }
+
+    private void checkFinalMethods(TypeElement component) {
+        for (ExecutableElement m : ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(component))) {
+            if (m.getModifiers().contains(Modifier.FINAL) && ProcessorUtils.hasInterceptorBinding(m.getAnnotationMirrors()))
+                error("Intercepted method can not be final", m);
+        }
+    }
+
+    private boolean canBeSubclassed(TypeElement component) {
+        if (component.getModifiers().contains(Modifier.FINAL)) {
+            error("Intercepted component can not be final", component);
+            return false;
+        }
+        for (Element e = component; e instanceof TypeElement; e = e.getEnclosingElement()) {
+            if (e.getModifiers().contains(Modifier.PRIVATE)
+                    || ((TypeElement) e).getNestingKind() == NestingKind.MEMBER && !e.getModifiers().contains(Modifier.STATIC)) {
+                error("Intercepted component can not be private or inner class", component);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void generate(TypeElement component, List<ExecutableElement> methods) {
+        String packageName = processingEnv.getElementUtils().getPackageOf(component).getQualifiedName().toString();
+        String binaryName = processingEnv.getElementUtils().getBinaryName(component).toString();
+        String className = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1))
+                + Intercepted.CLASS_NAME_SUFFIX;
+        try (Writer writer = processingEnv.getFiler()
+                .createSourceFile(packageName.isEmpty() ? className : packageName + "." + className, component)
+                .openWriter()) {
+            writer.write(generateSource(packageName, className, component, methods));
+        } catch (IOException e) {
+            error("Unable to generate intercepted subclass: " + e.getMessage(), component);
+        }
+    }
+
+    private String generateSource(
+            String packageName,
+            String className,
+            TypeElement component,
+            List<ExecutableElement> methods
+    ) {
+        Types types = processingEnv.getTypeUtils();
+        DeclaredType componentType = (DeclaredType) component.asType();
+        String superName = component.getQualifiedName().toString();
+        StringBuilder fields = new StringBuilder();
+        StringBuilder constructors = new StringBuilder();
+        StringBuilder bind = new StringBuilder();
+        StringBuilder invokeTarget = new StringBuilder();
+        StringBuilder overrides = new StringBuilder();
+
+        for (ExecutableElement c : ElementFilter.constructorsIn(component.getEnclosedElements())) {
+            if (!c.getModifiers().contains(Modifier.PUBLIC)) continue;
+            ExecutableType type = (ExecutableType) types.asMemberOf(componentType, c);
+            constructors.append("\n    public ").append(className).append("(")
+                    .append(parameters(type.getParameterTypes(), c.isVarArgs())).append(")")
+                    .append(throwsClause(type.getThrownTypes())).append(" {\n")
+                    .append("        super(").append(arguments(type.getParameterTypes().size())).append(");\n")
+                    .append("    }\n");
+        }
+
+        for (int id = 0; id < methods.size(); id++) {
+            ExecutableElement m = methods.get(id);
+            String name = m.getSimpleName().toString();
+            // Reflection sees erasure of the declaring method, overriding method uses types as member of the component
+            ExecutableType declared = (ExecutableType) types.erasure(m.asType());
+            ExecutableType member = (ExecutableType) types.asMemberOf(componentType, m);
+            List<? extends TypeMirror> parameterTypes = member.getParameterTypes();
+            boolean isVoid = member.getReturnType().getKind() == TypeKind.VOID;
+            String returnType = types.erasure(member.getReturnType()).toString();
+
+            List<String> classes = new ArrayList<>();
+            classes.add(superName + ".class");
+            classes.add(literal(name));
+            declared.getParameterTypes().forEach(p -> classes.add(types.erasure(p) + ".class"));
+            fields.append("    private static final java.lang.reflect.Method METHOD$").append(id)
+                    .append(" = ").append(INTERCEPTED).append(".findMethod(").append(String.join(", ", classes)).append(");\n")
+                    .append("    private ").append(METHOD_INTERCEPTOR).append("[] interceptors$").append(id).append(";\n");
+            bind.append("        interceptors$").append(id).append(" = interceptors.apply(METHOD$").append(id).append(");\n");
+
+            List<String> casts = new ArrayList<>();
+            for (int i = 0; i < parameterTypes.size(); i++) {
+                casts.add("(" + types.erasure(parameterTypes.get(i)) + ") arguments[" + i + "]");
+            }
+            String superCall = "super." + name + "(" + String.join(", ", casts) + ")";
+            invokeTarget.append("            case ").append(id).append(": ")
+                    .append(isVoid ? superCall + "; return null;\n" : "return " + superCall + ";\n");
+
+            String directCall = "super." + name + "(" + arguments(parameterTypes.size()) + ")";
+            overrides.append("\n    @Override\n")
+                    .append("    public ").append(returnType).append(" ").append(name).append("(")
+                    .append(parameters(parameterTypes, m.isVarArgs())).append(")")
+                    .append(throwsClause(member.getThrownTypes())).append(" {\n")
+                    .append("        ").append(METHOD_INTERCEPTOR).append("[] chain = interceptors$").append(id).append(";\n")
+                    .append("        if (chain == null) ")
+                    .append(isVoid ? "{\n            " + directCall + ";\n            return;\n        }\n" : "return " + directCall + ";\n")
+                    .append("        ").append(INVOCATION).append(" invocation = new ").append(INVOCATION)
+                    .append("(this, ").append(id).append(", METHOD$").append(id).append(", chain, new java.lang.Object[]{")
+                    .append(arguments(parameterTypes.size())).append("});\n")
+                    .append("        try {\n")
+                    .append(isVoid
+                            ? "            invocation.proceed();\n"
+                            : "            return (" + returnType + ") invocation.proceed();\n")
+                    .append("        } catch (java.lang.RuntimeException | java.lang.Error e) {\n")
+                    .append("            throw e;\n");
+            boolean throwsThrowable = false;
+            for (TypeMirror thrown : getCheckedExceptions(member.getThrownTypes())) {
+                throwsThrowable |= thrown.toString().equals("java.lang.Throwable");
+                overrides.append("        } catch (").append(thrown).append(" e) {\n")
+                        .append("            throw e;\n");
+            }
+            if (!throwsThrowable) {
+                overrides.append("        } catch (java.lang.Throwable e) {\n")
+                        .append("            throw new java.lang.reflect.UndeclaredThrowableException(e);\n");
+            }
+            overrides.append("        }\n")
+                    .append("    }\n");
+        }
+
+        StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty())
+            source.append("package ").append(packageName).append(";\n\n");
+        source.append("/**\n * Generated by ").append(getClass().getName()).append(", do not edit\n */\n")
+                .append("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n")
+                .append(component.getModifiers().contains(Modifier.PUBLIC) ? "public " : "")
+                .append("class ").append(className).append(" extends ").append(superName)
+                .append(" implements ").append(INTERCEPTED).append(" {\n")
+                .append(fields)
+                .append(constructors)
+                .append("\n    @Override\n")
+                .append("    public void bindInterceptors(java.util.function.Function<java.lang.reflect.Method, ")
+                .append(METHOD_INTERCEPTOR).append("[]> interceptors) {\n")
+                .append(bind)
+                .append("    }\n\n")
+                .append("    @Override\n")
+                .append("    public java.lang.Object invokeTarget(int method, java.lang.Object[] arguments) throws java.lang.Throwable {\n")
+                .append("        switch (method) {\n")
+                .append(invokeTarget)
+                .append("            default: throw new java.lang.IllegalStateException(\"Unknown method: \" + method);\n")
+                .append("        }\n")
+                .append("    }\n")
+                .append(overrides)
+                .append("}\n");
+        return source.toString();
+    }
+
+    /**
+     * Declared checked exceptions are rethrown as is, catch clauses must not repeat subtypes of other clauses
+     * @return erased checked exceptions which are not subtypes of other declared exceptions
+     */
+    private List<TypeMirror> getCheckedExceptions(List<? extends TypeMirror> thrownTypes) {
+        Types types = processingEnv.getTypeUtils();
+        TypeMirror runtimeException = processingEnv.getElementUtils().getTypeElement("java.lang.RuntimeException").asType();
+        TypeMirror error = processingEnv.getElementUtils().getTypeElement("java.lang.Error").asType();
+        List<TypeMirror> erased = new ArrayList<>();
+        thrownTypes.forEach(t -> erased.add(types.erasure(t)));
+        List<TypeMirror> checked = new ArrayList<>();
+        for (int i = 0; i < erased.size(); i++) {
+            TypeMirror t = erased.get(i);
+            if (types.isSubtype(t, runtimeException) || types.isSubtype(t, error)) continue;
+            boolean covered = false;
+            for (int j = 0; j < erased.size() && !covered; j++) {
+                TypeMirror other = erased.get(j);
+                // Equal types are kept once
+                covered = j != i && types.isSubtype(t, other) && (!types.isSameType(t, other) || j < i);
+            }
+            if (!covered) checked.add(t);
+        }
+        return checked;
+    }
+
+    private String parameters(List<? extends TypeMirror> parameterTypes, boolean varArgs) {
+        List<String> parameters = new ArrayList<>();
+        for (int i = 0; i < parameterTypes.size(); i++) {
+            String type = processingEnv.getTypeUtils().erasure(parameterTypes.get(i)).toString();
+            if (varArgs && i == parameterTypes.size() - 1)
+                type = type.substring(0, type.length() - 2) + "...";
+            parameters.add(type + " a" + i);
+        }
+        return String.join(", ", parameters);
+    }
+
+    private String throwsClause(List<? extends TypeMirror> thrownTypes) {
+        if (thrownTypes.isEmpty()) return "";
+        List<String> thrown = new ArrayList<>();
+        thrownTypes.forEach(t -> thrown.add(processingEnv.getTypeUtils().erasure(t).toString()));
+        return " throws " + String.join(", ", thrown);
+    }
+
+    private static String arguments(int count) {
+        List<String> arguments = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            arguments.add("a" + i);
+        }
+        return String.join(", ", arguments);
+    }
+
+    private void error(String message, Element element) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    private static String literal(String value) {
+        // Java identifiers need no escaping
+        return "\"" + value + "\"";
+    }
+}
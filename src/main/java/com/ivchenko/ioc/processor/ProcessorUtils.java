@@ -0,0 +1,133 @@
+package com.ivchenko.ioc.processor;
+
+import com.ivchenko.ioc.annotation.Component;
+import com.ivchenko.ioc.annotation.ConditionalOnClass;
+import com.ivchenko.ioc.annotation.ConditionalOnMissingBean;
+import com.ivchenko.ioc.annotation.ConditionalOnProperty;
+import com.ivchenko.ioc.annotation.InterceptorBinding;
+import com.ivchenko.ioc.annotation.Profile;
+import com.ivchenko.ioc.injector.ComponentConditions;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.MirroredTypesException;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static com.ivchenko.ioc.injector.util.ClassLoaderUtils.COMPONENT_INDEX_LOCATION;
+
+/**
+ * Utility class which contains methods used by annotation processors
+ */
+class ProcessorUtils {
+    /**
+     * Incremental compilation passes only changed sources to processors,
+     * so components from previous compilation are read from component index in class output
+     * @return binary names of previously indexed classes which still exist and are still components
+     */
+    static Set<String> readPreviousIndex(ProcessingEnvironment processingEnv) {
+        Set<String> names = new TreeSet<>();
+        try {
+            FileObject previous = processingEnv.getFiler()
+                    .getResource(StandardLocation.CLASS_OUTPUT, "", COMPONENT_INDEX_LOCATION);
+            try (Reader reader = previous.openReader(true);
+                 BufferedReader lines = new BufferedReader(reader)) {
+                String entry;
+                while ((entry = lines.readLine()) != null) {
+                    String name = ComponentConditions.getComponentName(entry);
+                    if (getComponent(processingEnv, name) != null) names.add(name);
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            // No previous index
+        }
+        return names;
+    }
+
+    /**
+     * Same rules as {@link ComponentConditions#of(Class)}
+     * @return conditions of the component in component index format, empty string if there are no conditions
+     */
+    static String getConditions(ProcessingEnvironment processingEnv, TypeElement component) {
+        Profile profile = component.getAnnotation(Profile.class);
+        ConditionalOnClass onClass = component.getAnnotation(ConditionalOnClass.class);
+        ConditionalOnProperty onProperty = component.getAnnotation(ConditionalOnProperty.class);
+        String[] missingBeanTypes = getMissingBeanTypes(processingEnv, component);
+        if (profile == null && onClass == null && onProperty == null && missingBeanTypes.length == 0) return "";
+        return new ComponentConditions(
+                profile == null ? new String[0] : profile.value(),
+                onClass == null ? new String[0] : onClass.value(),
+                onProperty == null ? null : onProperty.name(),
+                onProperty == null ? "" : onProperty.havingValue(),
+                onProperty != null && onProperty.matchIfMissing(),
+                missingBeanTypes
+        ).format();
+    }
+
+    /**
+     * Classes are not available at compile time, so types are read from annotation mirror
+     * @return binary names of types of {@link ConditionalOnMissingBean}
+     */
+    private static String[] getMissingBeanTypes(ProcessingEnvironment processingEnv, TypeElement component) {
+        ConditionalOnMissingBean annotation = component.getAnnotation(ConditionalOnMissingBean.class);
+        if (annotation == null) return new String[0];
+        try {
+            return Arrays.stream(annotation.value()).map(Class::getName).toArray(String[]::new);
+        } catch (MirroredTypesException e) {
+            return e.getTypeMirrors().stream()
+                    .map(t -> (TypeElement) ((DeclaredType) t).asElement())
+                    .map(t -> processingEnv.getElementUtils().getBinaryName(t).toString())
+                    .toArray(String[]::new);
+        }
+    }
+
+    /**
+     * @return type element of the component or null if there is no such class or it is not a component
+     */
+    static TypeElement getComponent(ProcessingEnvironment processingEnv, String binaryName) {
+        if (binaryName.isBlank()) return null;
+        TypeElement type = processingEnv.getElementUtils().getTypeElement(binaryName.replace('$', '.'));
+        return type != null && type.getAnnotation(Component.class) != null ? type : null;
+    }
+
+    /**
+     * Same rules as {@link com.ivchenko.ioc.injector.util.ReflectionUtils#getInterceptorBindings(Class)}
+     * @return public non-final methods of the component or its superclasses with interceptor bindings,
+     * empty list if component is not intercepted
+     */
+    static List<ExecutableElement> getInterceptedMethods(ProcessingEnvironment processingEnv, TypeElement component) {
+        boolean classBound = hasInterceptorBinding(processingEnv.getElementUtils().getAllAnnotationMirrors(component));
+        List<ExecutableElement> methods = new ArrayList<>();
+        for (ExecutableElement m : ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(component))) {
+            Set<Modifier> modifiers = m.getModifiers();
+            if (!modifiers.contains(Modifier.PUBLIC)
+                    || modifiers.contains(Modifier.STATIC)
+                    || modifiers.contains(Modifier.FINAL)
+                    || ((TypeElement) m.getEnclosingElement()).getQualifiedName().contentEquals("java.lang.Object")) continue;
+            if (classBound || hasInterceptorBinding(m.getAnnotationMirrors())) methods.add(m);
+        }
+        return methods;
+    }
+
+    /**
+     * Interceptor classes are resolved by Injector, so only presence of binding annotation is checked
+     * @return true if some of annotations is annotated with {@link InterceptorBinding}
+     */
+    static boolean hasInterceptorBinding(List<? extends AnnotationMirror> annotations) {
+        return annotations.stream()
+                .anyMatch(a -> a.getAnnotationType().asElement().getAnnotation(InterceptorBinding.class) != null);
+    }
+}
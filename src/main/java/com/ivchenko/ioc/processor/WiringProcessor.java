@@ -0,0 +1,438 @@
+package com.ivchenko.ioc.processor;
+
+import com.ivchenko.ioc.annotation.Autowired;
+import com.ivchenko.ioc.annotation.Component;
+import com.ivchenko.ioc.annotation.EventListener;
+import com.ivchenko.ioc.annotation.Lazy;
+import com.ivchenko.ioc.annotation.PostConstructor;
+import com.ivchenko.ioc.annotation.Qualifier;
+import com.ivchenko.ioc.annotation.Value;
+import com.ivchenko.ioc.annotation.WarmUp;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Annotation processor, generates {@link com.ivchenko.ioc.injector.GeneratedWiring} implementation
+ * which creates all {@link Component} classes of compilation with plain Java calls,
+ * so Injector does not scan class path and does not use reflection to create components.
+ * Generated class is placed to the common package of all components.
+ * Conditional components are listed by name with their conditions, they are loaded and created reflectively
+ * only if their conditions match. Intercepted components are created reflectively as subclasses
+ * generated by {@link InterceptionProcessor}
+ */
+@SupportedAnnotationTypes("com.ivchenko.ioc.annotation.Component")
+public class WiringProcessor extends AbstractProcessor {
+    public static final String GENERATED_CLASS_NAME = "IocGeneratedWiring";
+    private static final String SERVICE_LOCATION = "META-INF/services/com.ivchenko.ioc.injector.GeneratedWiring";
+    // Components are split between nested classes,
+    // so generated methods and constant pools stay far below class file limits
+    private static final int COMPONENTS_PER_CLASS = 100;
+    // Key: Erasure of parameter type
+    // Value: Kind of dependency ({@link com.ivchenko.ioc.injector.Dependency.Kind})
+    private static final Map<String, String> WRAPPER_KINDS = Map.of(
+            "com.ivchenko.ioc.injector.Provider", "PROVIDER",
+            "java.util.function.Supplier", "PROVIDER",
+            "java.util.List", "LIST",
+            "java.util.Map", "MAP"
+    );
+
+    private boolean generated;
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        Map<String, TypeElement> components = new TreeMap<>();
+        for (Element element : roundEnv.getElementsAnnotatedWith(Component.class)) {
+            if (element.getKind() != ElementKind.CLASS) continue;
+            TypeElement type = (TypeElement) element;
+            components.put(processingEnv.getElementUtils().getBinaryName(type).toString(), type);
+        }
+        if (components.isEmpty()) return false;
+
+        if (generated) {
+            components.values().forEach(c -> processingEnv.getMessager().printMessage(
+                    Diagnostic.Kind.ERROR,
+                    "Component is created by another processor after wiring was generated",
+                    c
+            ));
+            return false;
+        }
+        for (String name : ProcessorUtils.readPreviousIndex(processingEnv)) {
+            if (components.containsKey(name)) continue;
+            TypeElement previous = ProcessorUtils.getComponent(processingEnv, name);
+            if (previous != null) components.put(name, previous);
+        }
+        generated = true;
+        generate(new ArrayList<>(components.values()));
+        return false;
+    }
+
+    private void generate(List<TypeElement> components) {
+        String packageName = getCommonPackage(components);
+        String className = packageName.isEmpty() ? GENERATED_CLASS_NAME : packageName + "." + GENERATED_CLASS_NAME;
+        try {
+            try (Writer writer = processingEnv.getFiler().createSourceFile(className).openWriter()) {
+                writer.write(generateSource(packageName, components));
+            }
+            FileObject service = processingEnv.getFiler()
+                    .createResource(StandardLocation.CLASS_OUTPUT, "", SERVICE_LOCATION);
+            try (Writer writer = service.openWriter()) {
+                writer.write(className);
+                writer.write('\n');
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(
+                    Diagnostic.Kind.ERROR,
+                    "Unable to generate wiring: " + e.getMessage()
+            );
+        }
+    }
+
+    private String getCommonPackage(List<TypeElement> components) {
+        String common = null;
+        for (TypeElement component : components) {
+            String packageName = processingEnv.getElementUtils().getPackageOf(component).getQualifiedName().toString();
+            if (common == null) {
+                common = packageName;
+                continue;
+            }
+            while (!common.isEmpty() && !(packageName.equals(common) || packageName.startsWith(common + "."))) {
+                int lastDot = common.lastIndexOf('.');
+                common = lastDot < 0 ? "" : common.substring(0, lastDot);
+            }
+        }
+        return common == null ? "" : common;
+    }
+
+    private String generateSource(String packageName, List<TypeElement> allComponents) {
+        List<TypeElement> components = new ArrayList<>();
+        List<String> conditionalComponents = new ArrayList<>();
+        for (TypeElement component : allComponents) {
+            String conditions = ProcessorUtils.getConditions(processingEnv, component);
+            if (conditions.isEmpty()) {
+                components.add(component);
+            } else {
+                String binaryName = processingEnv.getElementUtils().getBinaryName(component).toString();
+                conditionalComponents.add(literal(binaryName + conditions));
+            }
+        }
+        StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty())
+            source.append("package ").append(packageName).append(";\n\n");
+        source.append("import com.ivchenko.ioc.injector.Dependency;\n")
+                .append("import com.ivchenko.ioc.injector.GeneratedComponent;\n")
+                .append("import com.ivchenko.ioc.injector.GeneratedWiring;\n\n")
+                .append("import java.util.ArrayList;\n")
+                .append("import java.util.List;\n")
+                .append("import java.util.function.Consumer;\n")
+                .append("import java.util.function.Function;\n\n")
+                .append("/**\n * Generated by ").append(getClass().getName()).append(", do not edit\n */\n")
+                .append("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n")
+                .append("public final class ").append(GENERATED_CLASS_NAME).append(" implements GeneratedWiring {\n")
+                .append("    @Override\n")
+                .append("    public List<GeneratedComponent> getComponents() {\n")
+                .append("        List<GeneratedComponent> components = new ArrayList<>(").append(components.size()).append(");\n");
+        int classes = (components.size() + COMPONENTS_PER_CLASS - 1) / COMPONENTS_PER_CLASS;
+        for (int c = 0; c < classes; c++) {
+            source.append("        Components").append(c).append(".add(components);\n");
+        }
+        source.append("        return components;\n")
+                .append("    }\n");
+        if (!conditionalComponents.isEmpty()) {
+            source.append("\n    @Override\n")
+                    .append("    public List<String> getConditionalComponents() {\n")
+                    .append("        return java.util.Arrays.asList(\n                ")
+                    .append(String.join(",\n                ", conditionalComponents))
+                    .append("\n        );\n")
+                    .append("    }\n");
+        }
+
+        for (int c = 0; c < classes; c++) {
+            int end = Math.min(components.size(), (c + 1) * COMPONENTS_PER_CLASS);
+            generateComponentsClass(source, "Components" + c, components.subList(c * COMPONENTS_PER_CLASS, end));
+        }
+        source.append("\n    static Class<?> load(String name) {\n")
+                .append("        try {\n")
+                .append("            return Class.forName(name, false, ").append(GENERATED_CLASS_NAME).append(".class.getClassLoader());\n")
+                .append("        } catch (ClassNotFoundException e) {\n")
+                .append("            throw new IllegalStateException(e);\n")
+                .append("        }\n")
+                .append("    }\n")
+                .append("}\n");
+        return source.toString();
+    }
+
+    /**
+     * One class creates a group of components, component is selected by id in switch.
+     * Named class instead of lambdas, so JVM does not spin a class per component at startup
+     */
+    private void generateComponentsClass(StringBuilder source, String className, List<TypeElement> components) {
+        StringBuilder add = new StringBuilder();
+        StringBuilder create = new StringBuilder();
+        StringBuilder postConstruct = new StringBuilder();
+        for (int id = 0; id < components.size(); id++) {
+            add.append("            components.add(")
+                    .append(generateComponent(components.get(id), className, id, create, postConstruct))
+                    .append(");\n");
+        }
+        source.append("\n    private static final class ").append(className)
+                .append(" implements Function<Object[], Object>, Consumer<Object> {\n")
+                .append("        private final int id;\n\n")
+                .append("        private ").append(className).append("(int id) {\n")
+                .append("            this.id = id;\n")
+                .append("        }\n\n")
+                .append("        static void add(List<GeneratedComponent> components) {\n")
+                .append(add)
+                .append("        }\n\n")
+                .append("        @Override\n")
+                .append("        public Object apply(Object[] arguments) {\n")
+                .append("            switch (id) {\n")
+                .append(create)
+                .append("                default: throw new IllegalStateException(\"Unknown component: \" + id);\n")
+                .append("            }\n")
+                .append("        }\n\n")
+                .append("        @Override\n")
+                .append("        public void accept(Object instance) {\n")
+                .append("            switch (id) {\n")
+                .append(postConstruct)
+                .append("                default: throw new IllegalStateException(\"Unknown component: \" + id);\n")
+                .append("            }\n")
+                .append("        }\n")
+                .append("    }\n");
+    }
+
+    /**
+     * Appends switch cases creating the component
+     * @return expression creating {@link com.ivchenko.ioc.injector.GeneratedComponent}
+     */
+    private String generateComponent(
+            TypeElement component,
+            String className,
+            int id,
+            StringBuilder create,
+            StringBuilder postConstruct
+    ) {
+        ExecutableElement constructor = getInjectionConstructor(component);
+        ExecutableElement postConstructor = getPostConstructorMethod(component);
+        List<String> dependencies = constructor == null ? null : generateDependencies(constructor);
+        if (!isAccessible(component)
+                || constructor == null
+                || dependencies == null
+                || !constructor.getThrownTypes().isEmpty()
+                || postConstructor != null && !postConstructor.getThrownTypes().isEmpty()
+                || hasAutowiredMembers(component)
+                || hasPublicMethodAnnotatedWith(component, WarmUp.class)
+                || hasPublicMethodAnnotatedWith(component, EventListener.class)
+                || !ProcessorUtils.getInterceptedMethods(processingEnv, component).isEmpty()) {
+            // Created reflectively by Injector
+            String binaryName = processingEnv.getElementUtils().getBinaryName(component).toString();
+            return "new GeneratedComponent(load(" + literal(binaryName) + "), null, false, null, null, null)";
+        }
+        String type = component.getQualifiedName().toString();
+        String scope = component.getAnnotation(Component.class).scope();
+        boolean lazy = component.getAnnotation(Lazy.class) != null;
+
+        List<String> arguments = new ArrayList<>();
+        List<? extends VariableElement> parameters = constructor.getParameters();
+        for (int i = 0; i < parameters.size(); i++) {
+            String parameterType = processingEnv.getTypeUtils().erasure(parameters.get(i).asType()).toString();
+            arguments.add("(" + parameterType + ") arguments[" + i + "]");
+        }
+        create.append("                case ").append(id).append(": return new ").append(type)
+                .append("(").append(String.join(", ", arguments)).append(");\n");
+        if (postConstructor != null) {
+            postConstruct.append("                case ").append(id).append(": ((").append(type).append(") instance).")
+                    .append(postConstructor.getSimpleName()).append("(); return;\n");
+        }
+        String factory = "new " + className + "(" + id + ")";
+
+        return "new GeneratedComponent(\n"
+                + "                    " + type + ".class,\n"
+                + "                    " + literal(scope) + ",\n"
+                + "                    " + lazy + ",\n"
+                + "                    new Dependency[]{" + String.join(", ", dependencies) + "},\n"
+                + "                    " + factory + ",\n"
+                + "                    " + (postConstructor == null ? "null" : factory) + "\n"
+                + "            )";
+    }
+
+    /**
+     * Same rules as {@link com.ivchenko.ioc.injector.Dependency#of(java.lang.reflect.Parameter)}
+     * @return expressions creating dependencies or null if some dependency can not be resolved at compile time,
+     * such component is created reflectively
+     */
+    private List<String> generateDependencies(ExecutableElement constructor) {
+        List<String> dependencies = new ArrayList<>();
+        for (VariableElement parameter : constructor.getParameters()) {
+            TypeMirror parameterType = parameter.asType();
+            Value value = parameter.getAnnotation(Value.class);
+            if (value != null) {
+                dependencies.add("Dependency.ofProperty("
+                        + processingEnv.getTypeUtils().erasure(parameterType) + ".class, "
+                        + literal(value.value()) + ")");
+                continue;
+            }
+            String kind = parameterType.getKind() == TypeKind.ARRAY
+                    && !((ArrayType) parameterType).getComponentType().getKind().isPrimitive()
+                    ? "ARRAY"
+                    : WRAPPER_KINDS.get(processingEnv.getTypeUtils().erasure(parameterType).toString());
+            TypeMirror type;
+            if (kind == null) {
+                type = processingEnv.getTypeUtils().erasure(parameterType);
+            } else if (kind.equals("ARRAY")) {
+                type = processingEnv.getTypeUtils().erasure(((ArrayType) parameterType).getComponentType());
+            } else {
+                List<? extends TypeMirror> arguments = ((DeclaredType) parameterType).getTypeArguments();
+                if (arguments.isEmpty() || arguments.get(arguments.size() - 1).getKind() != TypeKind.DECLARED)
+                    return null;
+                type = processingEnv.getTypeUtils().erasure(arguments.get(arguments.size() - 1));
+                if (kind.equals("MAP") && !arguments.get(0).toString().equals("java.lang.String"))
+                    return null;
+            }
+            Qualifier qualifier = parameter.getAnnotation(Qualifier.class);
+            // Invalid qualifiers are reported by Injector
+            if (qualifier != null && kind != null && !kind.equals("PROVIDER"))
+                return null;
+            dependencies.add("new Dependency(" + type + ".class, "
+                    + (qualifier == null ? "null" : literal(qualifier.value()))
+                    + (kind == null ? ")" : ", Dependency.Kind." + kind + ")"));
+        }
+        return dependencies;
+    }
+
+    /**
+     * Same rules as {@link com.ivchenko.ioc.injector.util.ReflectionUtils#getInjectionConstructor(Class)}
+     * @return constructor which should be used for injection or null if there is no public constructor
+     */
+    private ExecutableElement getInjectionConstructor(TypeElement component) {
+        ExecutableElement autowired = null;
+        ExecutableElement noArgs = null;
+        ExecutableElement only = null;
+        int count = 0;
+        for (ExecutableElement c : ElementFilter.constructorsIn(component.getEnclosedElements())) {
+            if (!c.getModifiers().contains(Modifier.PUBLIC)) continue;
+            only = c;
+            count++;
+            if (c.getAnnotation(Autowired.class) != null) {
+                if (autowired != null) error("Too many autowired constructors", component);
+                autowired = c;
+            } else if (c.getParameters().isEmpty()) {
+                noArgs = c;
+            }
+        }
+        if (autowired != null) return autowired;
+        if (noArgs != null) return noArgs;
+        if (count > 1) error("Too many public constructors, annotate one of them with Autowired", component);
+        return only;
+    }
+
+    /**
+     * Same rules as {@link com.ivchenko.ioc.injector.util.ReflectionUtils#getPostConstructorMethod(Class)}
+     * @return PostConstructor method or null if there is no such method
+     */
+    private ExecutableElement getPostConstructorMethod(TypeElement component) {
+        ExecutableElement postConstructor = null;
+        for (ExecutableElement m : ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(component))) {
+            if (!m.getModifiers().contains(Modifier.PUBLIC) || m.getAnnotation(PostConstructor.class) == null) continue;
+            if (postConstructor != null) error("Too many PostConstructor methods", component);
+            if (!m.getParameters().isEmpty()) error("Invalid PostConstructor parameters count", m);
+            postConstructor = m;
+        }
+        return postConstructor;
+    }
+
+    /**
+     * Components with WarmUp or EventListener methods are rare, such methods are resolved by Injector
+     * @return true if class or its superclasses declare public method with the annotation
+     */
+    private boolean hasPublicMethodAnnotatedWith(TypeElement component, Class<? extends Annotation> annotation) {
+        return ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(component)).stream()
+                .anyMatch(m -> m.getModifiers().contains(Modifier.PUBLIC) && m.getAnnotation(annotation) != null);
+    }
+
+    /**
+     * Autowired fields and setters may be private, they are injected through accessors resolved by Injector
+     * @return true if class or its superclasses declare autowired fields or methods
+     */
+    private boolean hasAutowiredMembers(TypeElement component) {
+        for (TypeElement type = component; type != null; type = getSuperclass(type)) {
+            for (Element member : type.getEnclosedElements()) {
+                if ((member.getKind() == ElementKind.FIELD || member.getKind() == ElementKind.METHOD)
+                        && member.getAnnotation(Autowired.class) != null) return true;
+            }
+        }
+        return false;
+    }
+
+    private static TypeElement getSuperclass(TypeElement type) {
+        TypeMirror superclass = type.getSuperclass();
+        return superclass.getKind() == TypeKind.DECLARED
+                ? (TypeElement) ((DeclaredType) superclass).asElement()
+                : null;
+    }
+
+    /**
+     * @return true if class can be referenced from any package
+     */
+    private boolean isAccessible(TypeElement type) {
+        Element element = type;
+        while (!(element instanceof PackageElement)) {
+            if (!element.getModifiers().contains(Modifier.PUBLIC)) return false;
+            if (element instanceof TypeElement
+                    && ((TypeElement) element).getNestingKind() == NestingKind.MEMBER
+                    && !element.getModifiers().contains(Modifier.STATIC)) return false;
+            element = element.getEnclosingElement();
+        }
+        return !type.getModifiers().contains(Modifier.ABSTRACT);
+    }
+
+    private void error(String message, Element element) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    private static String literal(String value) {
+        StringBuilder literal = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '"': literal.append("\\\""); break;
+                case '\\': literal.append("\\\\"); break;
+                case '\n': literal.append("\\n"); break;
+                case '\r': literal.append("\\r"); break;
+                case '\t': literal.append("\\t"); break;
+                default: literal.append(c);
+            }
+        }
+        return literal.append('"').toString();
+    }
+}
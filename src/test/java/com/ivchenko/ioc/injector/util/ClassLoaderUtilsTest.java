@@ -0,0 +1,56 @@
+package com.ivchenko.ioc.injector.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import static com.ivchenko.ioc.injector.util.ClassLoaderUtils.COMPONENT_INDEX_LOCATION;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClassLoaderUtilsTest {
+    private ClassLoader previousClassLoader;
+    private URLClassLoader libraryClassLoader;
+
+    /**
+     * Class path contains component index of a library only
+     */
+    @BeforeEach
+    void setUp(@TempDir Path library) throws IOException {
+        Path index = library.resolve(COMPONENT_INDEX_LOCATION);
+        Files.createDirectories(index.getParent());
+        Files.writeString(index, "org.library.LibraryComponent\norg.library.Conditional\tprofile:dev\n");
+        libraryClassLoader = new URLClassLoader(new URL[] {library.toUri().toURL()}, getClass().getClassLoader());
+        previousClassLoader = Thread.currentThread().getContextClassLoader();
+        Thread.currentThread().setContextClassLoader(libraryClassLoader);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Thread.currentThread().setContextClassLoader(previousClassLoader);
+        libraryClassLoader.close();
+    }
+
+    @Test
+    void foreignIndexDoesNotDisableScanOfOtherPackage() throws IOException {
+        assertTrue(ClassLoaderUtils.getIndexEntriesInPackage("com.application").isEmpty());
+    }
+
+    @Test
+    void entriesOfIndexedPackageAreReturned() throws IOException {
+        Optional<List<String>> entries = ClassLoaderUtils.getIndexEntriesInPackage("org.library");
+        assertEquals(
+                Optional.of(List.of("org.library.LibraryComponent", "org.library.Conditional\tprofile:dev")),
+                entries
+        );
+    }
+}